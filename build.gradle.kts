@@ -9,6 +9,7 @@ plugins {
 
     id ("com.github.johnrengelman.shadow") version ("7.1.2")
     id ("nu.studer.jooq") version ("7.1.1")
+    id ("me.champeau.jmh") version ("0.7.1")
 }
 
 val mainClassName = "net.toadless.radio.Main"
@@ -56,6 +57,9 @@ dependencies {
 
     implementation ("com.zaxxer:HikariCP:5.0.1")
     implementation ("org.jooq:jooq:3.18.3")
+
+    //Tests
+    testImplementation ("org.junit.jupiter:junit-jupiter:5.9.3")
 }
 
 jooq {
@@ -105,3 +109,21 @@ jooq {
         }
     }
 }
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+jmh {
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    profilers.add("gc") // reports the allocation rate next to the timings
+}
+
+tasks.register<JavaExec>("runNode") {
+    group = "application"
+    description = "Runs a standalone audio node, pass the port with --args=\"2334\""
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("net.toadless.radio.node.AudioNode")
+}
@@ -0,0 +1,102 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.filter.volume.PcmVolumeProcessor;
+import com.sedmelluq.discord.lavaplayer.format.AudioDataFormat;
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.format.transcoder.OpusChunkDecoder;
+import com.sedmelluq.discord.lavaplayer.format.transcoder.OpusChunkEncoder;
+import com.sedmelluq.discord.lavaplayer.player.AudioConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work done for a single 20ms frame of one player, with and without Opus passthrough. A player sends 50 frames a
+ * second, so the difference between the two times 50 is the CPU time passthrough saves per player per second.
+ * <p>
+ * Run it with {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PassthroughBenchmark
+{
+    private static final AudioDataFormat FORMAT = StandardAudioDataFormats.DISCORD_OPUS;
+    private static final int PROCESSED_VOLUME = 30; // what every player used to be forced to
+
+    private OpusChunkDecoder decoder;
+    private OpusChunkEncoder encoder;
+    private PcmVolumeProcessor volume;
+    private ShortBuffer pcm;
+    private ByteBuffer output;
+    private byte[] frame;
+
+    @Setup
+    public void setup()
+    {
+        decoder = new OpusChunkDecoder(FORMAT);
+        encoder = new OpusChunkEncoder(new AudioConfiguration(), FORMAT);
+        volume = new PcmVolumeProcessor(PROCESSED_VOLUME);
+        pcm = ByteBuffer.allocateDirect(FORMAT.totalSampleCount() * Short.BYTES).order(ByteOrder.nativeOrder()).asShortBuffer();
+        output = ByteBuffer.allocateDirect(FORMAT.maximumChunkSize());
+
+        for (int sample = 0; sample < FORMAT.chunkSampleCount; sample++)
+        {
+            short value = (short) (Math.sin(2 * Math.PI * 440 * sample / FORMAT.sampleRate) * 8000); // a 440Hz tone
+
+            for (int channel = 0; channel < FORMAT.channelCount; channel++)
+            {
+                pcm.put(value);
+            }
+        }
+
+        ((Buffer) pcm).flip();
+        frame = encoder.encode(pcm);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        decoder.close();
+        encoder.close();
+    }
+
+    /**
+     * Volume 100 and no filter, the source frame is copied into the send buffer as it is.
+     */
+    @Benchmark
+    public ByteBuffer passthrough()
+    {
+        ((Buffer) output).clear();
+        output.put(frame);
+        ((Buffer) output).flip();
+        return output;
+    }
+
+    /**
+     * Any other volume, or bass boost, decodes the frame, processes the samples and encodes them again.
+     */
+    @Benchmark
+    public ByteBuffer processed()
+    {
+        ((Buffer) pcm).clear();
+        decoder.decode(frame, pcm);
+        volume.applyVolume(PROCESSED_VOLUME, PROCESSED_VOLUME, pcm);
+
+        ((Buffer) output).clear();
+        output.put(encoder.encode(pcm));
+        ((Buffer) output).flip();
+        return output;
+    }
+}
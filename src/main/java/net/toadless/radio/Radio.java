@@ -13,12 +13,13 @@ import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
 import net.dv8tion.jda.api.sharding.ShardManager;
 import net.dv8tion.jda.api.utils.MemberCachePolicy;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.toadless.radio.modules.DatabaseModule;
 import net.toadless.radio.objects.bot.ConfigOption;
 import net.toadless.radio.objects.bot.Configuration;
 import net.toadless.radio.objects.bot.EventWaiter;
+import net.toadless.radio.objects.cache.GuildSettingsCache;
 import net.toadless.radio.objects.info.BotInfo;
 import net.toadless.radio.objects.module.Modules;
-import net.toadless.radio.util.DatabaseUtils;
 import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +30,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public class Radio extends ListenerAdapter
 {
@@ -113,7 +115,9 @@ public class Radio extends ListenerAdapter
     @Override
     public void onReady(ReadyEvent event)
     {
-        registerGuilds(event.getJDA().getShardManager());
+        registerGuilds(event.getJDA());
+        // events for this shard are only dispatched once this returns, so commands find their settings cached
+        GuildSettingsCache.warm(event.getJDA().getShardInfo().getShardId(), event.getJDA().getShardInfo().getShardTotal(), this);
         switchStatus(event.getJDA());
 
         getLogger().info("Account:         " + event.getJDA().getSelfUser().getAsTag() + " / " + event.getJDA().getSelfUser().getId());
@@ -140,16 +144,23 @@ public class Radio extends ListenerAdapter
         return shardManager.getShardCache().stream().filter(Objects::nonNull).findFirst().orElse(null);
     }
 
-    public void registerGuilds(ShardManager shardManager)
+    /**
+     * Registers the guilds of the shard that became ready, every shard calls this for its own guilds only.
+     */
+    public void registerGuilds(JDA jda)
     {
-        if (shardManager == null)
-        {
-            throw new UnsupportedOperationException("Cannot register guilds without a shard manager.");
-        }
-        for (Guild guild : shardManager.getGuilds())
+        long start = System.currentTimeMillis();
+        List<Long> guildIds = jda.getGuildCache().applyStream(guilds -> guilds.map(Guild::getIdLong).collect(Collectors.toList()));
+
+        modules.get(DatabaseModule.class).getGuildDao().register(guildIds).whenComplete((added, throwable) ->
         {
-            DatabaseUtils.registerGuild(guild, this);
-        }
+            if (throwable != null)
+            {
+                getLogger().error("An SQL error occurred", throwable);
+                return;
+            }
+            getLogger().info("Registered " + guildIds.size() + " guilds (" + added + " new) for shard " + jda.getShardInfo().getShardId() + " in " + (System.currentTimeMillis() - start) + "ms.");
+        });
     }
 
     private void switchStatus(JDA jda)
@@ -5,6 +5,7 @@ import java.util.function.Consumer;
 
 import net.toadless.radio.modules.DatabaseModule;
 import net.toadless.radio.modules.MusicModule;
+import net.toadless.radio.modules.PersistenceModule;
 import net.toadless.radio.objects.command.Command;
 import net.toadless.radio.objects.command.CommandEvent;
 import net.toadless.radio.objects.command.CommandFlag;
@@ -24,6 +25,7 @@ public class ShutdownCommand extends Command
     @Override
     public void run(@NotNull List<String> args, @NotNull CommandEvent event, @NotNull Consumer<CommandException> failure)
     {
+        event.getRadio().getModules().get(PersistenceModule.class).flush();
         event.getRadio().getModules().get(DatabaseModule.class).close();
         event.getRadio().getModules().close();
         event.getJDA().getGuilds().forEach(guild -> event.getRadio().getModules().get(MusicModule.class).getGuildMusicManager(guild).kill(guild));
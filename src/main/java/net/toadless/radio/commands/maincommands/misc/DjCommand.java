@@ -4,6 +4,7 @@ import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Role;
 import net.toadless.radio.commands.subcommands.dj.DjRemoveCommand;
 import net.toadless.radio.commands.subcommands.dj.DjSetCommand;
+import net.toadless.radio.objects.cache.GuildSettings;
 import net.toadless.radio.objects.cache.GuildSettingsCache;
 import net.toadless.radio.objects.command.Command;
 import net.toadless.radio.objects.command.CommandEvent;
@@ -30,9 +31,9 @@ public class DjCommand extends Command
     @Override
     public void run(@NotNull List<String> args, @NotNull CommandEvent event, @NotNull Consumer<CommandException> failure)
     {
-        GuildSettingsCache guildSettingsCache = GuildSettingsCache.getCache(event.getGuildIdLong(), event.getRadio());
+        GuildSettings settings = GuildSettingsCache.getCachedSettings(event.getGuildIdLong(), event.getRadio());
 
-        if (guildSettingsCache.getDjRole() == -1L)
+        if (!settings.hasDjRole())
         {
             event.replyError("This guild does not currently have a DJ role.");
             return;
@@ -40,7 +41,7 @@ public class DjCommand extends Command
 
         try
         {
-            Role djRole = event.getGuild().getRoleById(guildSettingsCache.getDjRole());
+            Role djRole = event.getGuild().getRoleById(settings.getDjRole());
             event.replySuccess("Current dj role: " + djRole.getAsMention());
         }
         catch (Exception exception)
@@ -32,12 +32,11 @@ public class PrefixCommand extends Command
     public void run(@NotNull List<String> args, @NotNull CommandEvent event, @NotNull Consumer<CommandException> failure)
     {
         MessageChannel channel = event.getChannel();
-        GuildSettingsCache config = GuildSettingsCache.getCache(event.getGuildIdLong(), event.getRadio());
 
         if (args.isEmpty())
         {
             EmbedUtils.sendDeletingEmbed(channel, new EmbedBuilder()
-                    .setDescription("My prefix for this server is `" + config.getPrefix() + "`.")
+                    .setDescription("My prefix for this server is `" + event.getPrefix() + "`.")
                     .setColor(Constants.EMBED_COLOUR), 30000);
             return;
         }
@@ -52,7 +51,7 @@ public class PrefixCommand extends Command
 
         if (event.isDeveloper())
         {
-            config.setPrefix(prefix);
+            GuildSettingsCache.setPrefix(event.getGuildIdLong(), prefix, event.getRadio());
             event.replySuccess("My new prefix is `" + prefix + "`");
             return;
         }
@@ -63,7 +62,7 @@ public class PrefixCommand extends Command
             return;
         }
 
-        config.setPrefix(prefix);
+        GuildSettingsCache.setPrefix(event.getGuildIdLong(), prefix, event.getRadio());
         event.replySuccess("My new prefix is `" + prefix + "`");
     }
 
@@ -79,9 +78,8 @@ public class PrefixCommand extends Command
         @Override
         public void run(@NotNull List<String> args, @NotNull CommandEvent event, @NotNull Consumer<CommandException> failure)
         {
-            GuildSettingsCache config = GuildSettingsCache.getCache(event.getGuildIdLong(), event.getRadio());
             event.replySuccess("Reset my prefix to `" + Constants.DEFAULT_BOT_PREFIX + "`");
-            config.setPrefix(Constants.DEFAULT_BOT_PREFIX);
+            GuildSettingsCache.setPrefix(event.getGuildIdLong(), Constants.DEFAULT_BOT_PREFIX, event.getRadio());
         }
     }
 }
\ No newline at end of file
@@ -33,7 +33,7 @@ public class LeaveCommand extends Command
         if (CommandChecks.inVoice(event, failure)) return;
         if (CommandChecks.isUserDj(event, failure)) return;
 
-        manager.getPlayer().destroy();
+        manager.destroy();
         manager.leave(event.getGuild());
         manager.getScheduler().clear();
 
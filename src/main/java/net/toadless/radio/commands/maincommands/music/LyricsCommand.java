@@ -3,6 +3,7 @@ package net.toadless.radio.commands.maincommands.music;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.toadless.radio.modules.CooldownModule;
+import net.toadless.radio.modules.LyricsModule;
 import net.toadless.radio.modules.MusicModule;
 import net.toadless.radio.objects.command.Command;
 import net.toadless.radio.objects.command.CommandEvent;
@@ -11,22 +12,13 @@ import net.toadless.radio.objects.exception.CommandException;
 import net.toadless.radio.objects.exception.CommandResultException;
 import net.toadless.radio.objects.music.GuildMusicManager;
 import net.toadless.radio.util.CommandChecks;
-import net.toadless.radio.util.StringUtils;
 import org.jetbrains.annotations.NotNull;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.safety.Safelist;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
 public class LyricsCommand extends Command
 {
-    private static final ExecutorService LYRIC_EXECUTOR = Executors.newCachedThreadPool();
-
     public LyricsCommand()
     {
         super("Lyrics", "Fetches the lyrics for the provided song.", "[Song]");
@@ -64,51 +56,39 @@ public class LyricsCommand extends Command
             song = currentTrack.getInfo().title;
         } else song = String.join(" ", args);
 
-        LYRIC_EXECUTOR.submit(() ->
+        LyricsModule lyricsModule = event.getRadio().getModules().get(LyricsModule.class);
+        if (event.isFromGuild())
         {
-            try
-            {
-                Document doc = Jsoup.connect("https://www.musixmatch.com/search/" +
-                        StringUtils.URLSanitize(String.join("%20", song))).get(); //Enable safe search
-
-                String url = Objects.requireNonNull(doc.selectFirst("a.title[href*=/lyrics/]")).attr("abs:href");
-
-                if (url.isEmpty())
-                {
-                    event.replyError("Unable to find anything matching `" + song + "`!");
-                    return;
-                }
-
-                doc = Jsoup.connect(url).get();
+            lyricsModule.recordUse(event.getGuildIdLong());
+        }
 
-                event.getRadio().getModules().get(CooldownModule.class).addCooldown(event.getMember(), this);
+        lyricsModule.getLyrics(song).whenComplete((lyrics, throwable) ->
+        {
+            if (throwable != null)
+            {
+                failure.accept(new CommandResultException("Unable to fetch lyrics!"));
+                event.getRadio().getLogger().error("Unable to fetch lyrics... :(", throwable);
+                return;
+            }
 
-                String title = Objects.requireNonNull(doc.selectFirst("h1")).ownText();
-                String artist = Objects.requireNonNull(doc.selectFirst("h2 span a")).ownText();
-                String lyrics = Jsoup.clean(
-                        Objects.requireNonNull(doc.selectFirst("div.mxm-lyrics > span")).html(), Safelist.simpleText());
+            if (lyrics == null)
+            {
+                event.replyError("Unable to find anything matching `" + song + "`!");
+                return;
+            }
 
-                if (title.isEmpty() || artist.isEmpty() || lyrics.isEmpty())
-                {
-                    failure.accept(new CommandResultException("No results found."));
-                    return;
-                }
+            event.getRadio().getModules().get(CooldownModule.class).addCooldown(event.getMember(), this);
 
-                if (lyrics.length() > 4096) // max embed description length
-                {
-                    event.sendMessage(new EmbedBuilder()
-                        .setTitle(title, url)
-                        .setAuthor(artist)
-                        .setDescription("Lyrics too long to send..."));
-                } else event.sendMessage(new EmbedBuilder()
-                    .setTitle(title, url)
-                    .setAuthor(artist)
-                    .setDescription(lyrics));
-            } catch (Exception exception)
+            if (lyrics.getText().length() > 4096) // max embed description length
             {
-                failure.accept(new CommandResultException("Unable to fetch lyrics!"));
-                event.getRadio().getLogger().error("Unable to fetch lyrics... :(");
-            }
+                event.sendMessage(new EmbedBuilder()
+                    .setTitle(lyrics.getTitle(), lyrics.getUrl())
+                    .setAuthor(lyrics.getArtist())
+                    .setDescription("Lyrics too long to send..."));
+            } else event.sendMessage(new EmbedBuilder()
+                .setTitle(lyrics.getTitle(), lyrics.getUrl())
+                .setAuthor(lyrics.getArtist())
+                .setDescription(lyrics.getText()));
         });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package net.toadless.radio.commands.maincommands.music;
+
+import net.toadless.radio.modules.MusicModule;
+import net.toadless.radio.objects.command.Command;
+import net.toadless.radio.objects.command.CommandEvent;
+import net.toadless.radio.objects.command.CommandFlag;
+import net.toadless.radio.objects.exception.CommandException;
+import net.toadless.radio.objects.exception.CommandInputException;
+import net.toadless.radio.objects.music.GuildMusicManager;
+import net.toadless.radio.util.CommandChecks;
+import net.toadless.radio.util.Parser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+
+@SuppressWarnings ("unused")
+public class MoveCommand extends Command
+{
+    public MoveCommand()
+    {
+        super("Move", "Moves a track to a different position in the queue.", "[from] [to]");
+        addAliases("move", "mv");
+        addFlags(CommandFlag.GUILD_ONLY);
+    }
+
+    @Override
+    public void run(@NotNull List<String> args, @NotNull CommandEvent event, @NotNull Consumer<CommandException> failure)
+    {
+        MusicModule musicModule = event.getRadio().getModules().get(MusicModule.class);
+        GuildMusicManager manager = musicModule.getGuildMusicManager(event.getGuild());
+
+        if (CommandChecks.boundToChannel(manager, event.getChannel(), failure)) return;
+        if (CommandChecks.sharesVoice(event, failure)) return;
+        if (CommandChecks.isUserDj(event, failure)) return;
+        if (CommandChecks.argsSizeSubceeds(event, 2, failure)) return;
+
+        OptionalInt from = new Parser(args.get(0), event).parseAsUnsignedInt();
+        if (from.isEmpty()) return;
+
+        OptionalInt to = new Parser(args.get(1), event).parseAsUnsignedInt();
+        if (to.isEmpty()) return;
+
+        if (!manager.getScheduler().moveTrack(from.getAsInt() - 1, to.getAsInt() - 1))
+        {
+            failure.accept(new CommandInputException("Positions must be between 1 and " + manager.getScheduler().getQueueSize() + "."));
+            return;
+        }
+
+        event.replySuccess("Moved track " + from.getAsInt() + " to position " + to.getAsInt() + ".");
+    }
+}
@@ -7,7 +7,6 @@ import java.util.List;
 import java.util.function.Consumer;
 
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.entities.User;
 import net.toadless.radio.modules.MusicModule;
 import net.toadless.radio.objects.command.Command;
 import net.toadless.radio.objects.command.CommandEvent;
@@ -16,6 +15,7 @@ import net.toadless.radio.objects.exception.CommandException;
 import net.toadless.radio.objects.exception.CommandResultException;
 import net.toadless.radio.objects.music.GuildMusicManager;
 import net.toadless.radio.util.CommandChecks;
+import net.toadless.radio.util.CommandUtils;
 import net.toadless.radio.util.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -55,6 +55,6 @@ public class NowPlayingCommand extends Command
                                 "\n**Author**: " + currentTrack.getInfo().author +
                                 "\n**Position**: " + StringUtils.parseDuration(passed) +
                                 "\n**Length**: " + StringUtils.parseDuration(length) +
-                                "\n**Requested by**: " + currentTrack.getUserData(User.class).getAsMention()));
+                                "\n**Requested by**: " + CommandUtils.formatRequester(currentTrack)));
     }
 }
\ No newline at end of file
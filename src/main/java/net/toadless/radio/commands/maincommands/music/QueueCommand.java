@@ -3,13 +3,10 @@ package net.toadless.radio.commands.maincommands.music;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
 
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
-import net.dv8tion.jda.api.entities.User;
 import net.toadless.radio.Constants;
 import net.toadless.radio.modules.PaginationModule;
 import net.toadless.radio.objects.command.Command;
@@ -18,6 +15,7 @@ import net.toadless.radio.objects.command.CommandFlag;
 import net.toadless.radio.objects.exception.CommandException;
 import net.toadless.radio.objects.exception.CommandResultException;
 import net.toadless.radio.objects.music.GuildMusicManager;
+import net.toadless.radio.objects.music.TrackScheduler;
 import net.toadless.radio.util.CommandChecks;
 import net.toadless.radio.modules.MusicModule;
 import net.toadless.radio.util.CommandUtils;
@@ -27,6 +25,8 @@ import org.jetbrains.annotations.NotNull;
 @SuppressWarnings ("unused")
 public class QueueCommand extends Command
 {
+    private static final int TRACKS_PER_PAGE = 10;
+
     public QueueCommand()
     {
         super("Queue", "Shows the queue.", "[none]");
@@ -43,51 +43,57 @@ public class QueueCommand extends Command
         if (CommandChecks.boundToChannel(manager, event.getChannel(), failure)) return;
         if (CommandChecks.sharesVoice(event, failure)) return;
 
-        Collection<AudioTrack> tracks = manager.getScheduler().getQueue();
+        TrackScheduler scheduler = manager.getScheduler();
+        int size = scheduler.getQueueSize();
 
-        if (tracks.isEmpty())
+        if (size == 0)
         {
             failure.accept(new CommandResultException("The queue is empty."));
             return;
         }
 
-        StringBuilder trackMessage = new StringBuilder()
-                .append("**")
-                .append("Currently ")
-                .append(tracks.size())
-                .append(" ")
-                .append(StringUtils.plurify("track", tracks.size()))
-                .append(" are queued")
-                .append(":**\n");
+        String header = "**Currently " + size + " " + StringUtils.plurify("track", size) + " are queued " +
+                "(" + CommandUtils.formatDuration(scheduler.getQueueDuration()) + ")" + ":**\n";
 
-        ArrayList<String> pages = new ArrayList<>();
+        // pages are rendered on demand so large queues are never walked in full
+        event.getRadio().getModules().get(PaginationModule.class).create(
+                event.getChannel(),
+                event.getMember().getIdLong(),
+                (size + TRACKS_PER_PAGE - 1) / TRACKS_PER_PAGE,
+                (page, embedBuilder) -> embedBuilder.setColor(Constants.EMBED_COLOUR)
+                        .setDescription(formatPage(scheduler, header, page))
+                        .setTimestamp(Instant.now())
+        );
+    }
 
-        int i = 1;
+    private String formatPage(TrackScheduler scheduler, String header, int page)
+    {
+        StringBuilder trackMessage = new StringBuilder(header);
 
-        for(AudioTrack track : tracks)
+        int from = page * TRACKS_PER_PAGE;
+        int to = Math.min(from + TRACKS_PER_PAGE, scheduler.getQueueSize());
+
+        if (from >= to)
+        {
+            return trackMessage.append("This page is now empty.").toString();
+        }
+
+        int i = from + 1;
+
+        for (AudioTrack track : scheduler.getTracks(from, to))
         {
             String formattedTrack = i + ". " + formatTrackWithInfo(track) + "\n";
 
             if (trackMessage.length() + formattedTrack.length() >= 2048)
             {
-                pages.add(trackMessage.toString());
-                trackMessage = new StringBuilder();
+                break;
             }
 
             trackMessage.append(formattedTrack);
             i++;
         }
 
-        pages.add(trackMessage.toString());
-
-        event.getRadio().getModules().get(PaginationModule.class).create(
-                event.getChannel(),
-                event.getMember().getIdLong(),
-                pages.size(),
-                (page, embedBuilder) -> embedBuilder.setColor(Constants.EMBED_COLOUR)
-                        .setDescription(pages.get(page))
-                        .setTimestamp(Instant.now())
-        );
+        return trackMessage.toString();
     }
 
     public static String formatTrackWithInfo(AudioTrack track)
@@ -104,7 +110,7 @@ public class QueueCommand extends Command
                 .append(" - ")
                 .append(CommandUtils.formatDuration(info.length))
                 .append(" [")
-                .append(track.getUserData(User.class).getAsMention())
+                .append(CommandUtils.formatRequester(track))
                 .append("]")
                 .toString();
     }
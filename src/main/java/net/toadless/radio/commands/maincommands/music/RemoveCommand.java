@@ -0,0 +1,57 @@
+package net.toadless.radio.commands.maincommands.music;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import net.toadless.radio.modules.MusicModule;
+import net.toadless.radio.objects.command.Command;
+import net.toadless.radio.objects.command.CommandEvent;
+import net.toadless.radio.objects.command.CommandFlag;
+import net.toadless.radio.objects.exception.CommandException;
+import net.toadless.radio.objects.exception.CommandInputException;
+import net.toadless.radio.objects.music.GuildMusicManager;
+import net.toadless.radio.util.CommandChecks;
+import net.toadless.radio.util.Parser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+
+@SuppressWarnings ("unused")
+public class RemoveCommand extends Command
+{
+    public RemoveCommand()
+    {
+        super("Remove", "Removes a track from the queue.", "[position]");
+        addAliases("remove", "rm");
+        addFlags(CommandFlag.GUILD_ONLY);
+    }
+
+    @Override
+    public void run(@NotNull List<String> args, @NotNull CommandEvent event, @NotNull Consumer<CommandException> failure)
+    {
+        MusicModule musicModule = event.getRadio().getModules().get(MusicModule.class);
+        GuildMusicManager manager = musicModule.getGuildMusicManager(event.getGuild());
+
+        if (CommandChecks.boundToChannel(manager, event.getChannel(), failure)) return;
+        if (CommandChecks.sharesVoice(event, failure)) return;
+        if (CommandChecks.isUserDj(event, failure)) return;
+        if (CommandChecks.argsEmpty(event, failure)) return;
+
+        OptionalInt position = new Parser(args.get(0), event).parseAsUnsignedInt();
+
+        if (position.isEmpty())
+        {
+            return;
+        }
+
+        AudioTrack track = manager.getScheduler().removeTrack(position.getAsInt() - 1);
+
+        if (track == null)
+        {
+            failure.accept(new CommandInputException("There is no track at position " + position.getAsInt() + "."));
+            return;
+        }
+
+        event.replySuccess("Removed **" + track.getInfo().title + "** from the queue.");
+    }
+}
@@ -7,6 +7,7 @@ import net.toadless.radio.objects.command.CommandEvent;
 import net.toadless.radio.objects.command.CommandFlag;
 import net.toadless.radio.objects.exception.CommandException;
 import net.toadless.radio.objects.music.GuildMusicManager;
+import net.toadless.radio.objects.music.LoadPriority;
 import net.toadless.radio.objects.music.loaders.ExactSearchAudioLoader;
 import net.toadless.radio.util.CommandChecks;
 import org.jetbrains.annotations.NotNull;
@@ -39,6 +40,6 @@ public class SearchCommand extends Command
         String query = String.join("", args);
 
         manager.bind(event.getChannel());
-        musicModule.getPlayerManager().loadItemOrdered(manager, "ytsearch:" + query, new ExactSearchAudioLoader(manager, failure, event, channel));
+        musicModule.getLoadScheduler().load(event.getGuildIdLong(), manager, "ytsearch:" + query, LoadPriority.INTERACTIVE, new ExactSearchAudioLoader(manager, failure, event, channel));
     }
 }
\ No newline at end of file
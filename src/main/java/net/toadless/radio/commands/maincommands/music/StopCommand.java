@@ -33,7 +33,7 @@ public class StopCommand extends Command
         if (CommandChecks.isUserDj(event, failure)) return;
 
         manager.getScheduler().clear();
-        manager.getPlayer().destroy();
+        manager.destroy();
         event.replySuccess("Stopped the player!");
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package net.toadless.radio.commands.subcommands.dj;
 
 import net.dv8tion.jda.api.Permission;
+import net.toadless.radio.objects.cache.GuildSettings;
 import net.toadless.radio.objects.cache.GuildSettingsCache;
 import net.toadless.radio.objects.command.Command;
 import net.toadless.radio.objects.command.CommandEvent;
@@ -24,11 +25,9 @@ public class DjRemoveCommand extends Command
     @Override
     public void run(@NotNull List<String> args, @NotNull CommandEvent event, @NotNull Consumer<CommandException> failure)
     {
-        GuildSettingsCache guildSettingsCache = GuildSettingsCache.getCache(event.getGuildIdLong(), event.getRadio());
-
         try
         {
-            guildSettingsCache.setDjRole(-1L);
+            GuildSettingsCache.setDjRole(event.getGuildIdLong(), GuildSettings.NO_DJ_ROLE, event.getRadio());
             event.replySuccess("Successfully removed the DJ role.");
         }
         catch (Exception exception)
@@ -29,7 +29,6 @@ public class DjSetCommand extends Command
     public void run(@NotNull List<String> args, @NotNull CommandEvent event, @NotNull Consumer<CommandException> failure)
     {
         MessageChannel channel = event.getChannel();
-        GuildSettingsCache config = GuildSettingsCache.getCache(event.getGuildIdLong(), event.getRadio());
 
         if (args.isEmpty())
         {
@@ -39,7 +38,7 @@ public class DjSetCommand extends Command
 
         new Parser(args.get(0), event).parseAsRole(newRole ->
         {
-            config.setDjRole(newRole.getIdLong());
+            GuildSettingsCache.setDjRole(event.getGuildIdLong(), newRole.getIdLong(), event.getRadio());
             EmbedUtils.sendSuccess(channel, "Set the guilds DJ role to " + newRole.getAsMention() + ".");
         });
     }
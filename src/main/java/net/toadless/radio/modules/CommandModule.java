@@ -7,7 +7,9 @@ import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.toadless.radio.Constants;
 import net.toadless.radio.Radio;
+import net.toadless.radio.objects.cache.GuildSettings;
 import net.toadless.radio.objects.cache.GuildSettingsCache;
+import net.toadless.radio.objects.cache.GuildSettingsTable;
 import net.toadless.radio.objects.command.Command;
 import net.toadless.radio.objects.command.CommandEvent;
 import net.toadless.radio.objects.module.Module;
@@ -19,6 +21,7 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class CommandModule extends Module
@@ -131,15 +134,45 @@ public class CommandModule extends Module
 
     private void handleGuild(MessageReceivedEvent event)
     {
-        String prefix = GuildSettingsCache.getCache(event.getGuild().getIdLong(), radio).getPrefix();
         String messageContent = event.getMessage().getContentRaw();
+        long guildId = event.getGuild().getIdLong();
 
         if (isBotMention(event))
         {
-            prefix = messageContent.substring(0, messageContent.indexOf(">") + 1);
+            String mention = messageContent.substring(0, messageContent.indexOf(">") + 1);
+            runWithSettings(guildId, event, settings -> runCommand(mention, messageContent, event));
+            return;
         }
 
-        runCommand(prefix, messageContent, event);
+        int prefixLength = GuildSettingsCache.matchPrefix(guildId, messageContent);
+
+        if (prefixLength == GuildSettingsTable.NO_MATCH)
+        {
+            return; // most messages aren't commands
+        }
+
+        if (prefixLength != GuildSettingsTable.UNRESOLVED)
+        {
+            runCommand(messageContent.substring(0, prefixLength), messageContent, event);
+            return;
+        }
+
+        runWithSettings(guildId, event, settings -> runCommand(settings.getPrefix(), messageContent, event));
+    }
+
+    /**
+     * Commands read the settings from the cache without waiting, so they only run once the guild is in it. If it
+     * has to be loaded first the command runs on JDA's callback pool, commands may wait on the database themselves
+     * and must never tie up its threads.
+     */
+    private void runWithSettings(long guildId, MessageReceivedEvent event, Consumer<GuildSettings> command)
+    {
+        GuildSettingsCache.withSettings(guildId, radio, event.getJDA().getCallbackPool(), command)
+                .exceptionally(throwable ->
+                {
+                    radio.getLogger().error("A command exception occurred", throwable);
+                    return null;
+                });
     }
 
     private void runCommand(String prefix, String content, MessageReceivedEvent event)
@@ -9,9 +9,15 @@ import net.toadless.radio.Radio;
 import net.toadless.radio.objects.bot.ConfigOption;
 import net.toadless.radio.objects.bot.Configuration;
 import net.toadless.radio.objects.cache.GuildSettingsCache;
+import net.toadless.radio.objects.cache.GuildSettingsWriter;
+import net.toadless.radio.objects.cache.InvalidationChannel;
+import net.toadless.radio.objects.database.DatabaseExecutor;
+import net.toadless.radio.objects.database.GuildDao;
+import net.toadless.radio.objects.database.GuildSettingsDao;
+import net.toadless.radio.objects.database.PlayerDao;
+import net.toadless.radio.objects.database.SpotifyTrackDao;
 import net.toadless.radio.objects.module.Module;
 import net.toadless.radio.objects.module.Modules;
-import net.toadless.radio.util.DatabaseUtils;
 import net.toadless.radio.util.IOUtils;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
@@ -21,11 +27,34 @@ import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseModule extends Module
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseModule.class);
+    private static final String SETTINGS_CHANNEL = "guild_settings";
+    private static final long NOTIFY_INTERVAL_MILLIS = 100;
+    private static final long WRITE_INTERVAL_MILLIS = 500;
+    private static final long REGISTRY_INTERVAL_SECONDS = 2;
+    private static final int EXECUTOR_THREADS = 8;
+    private static final int EXECUTOR_QUEUE_SIZE = 1000;
+
     private final HikariDataSource pool;
+    private final DatabaseExecutor executor;
+    private final GuildDao guildDao;
+    private final GuildSettingsDao guildSettingsDao;
+    private final SpotifyTrackDao spotifyTrackDao;
+    private final PlayerDao playerDao;
+    private final InvalidationChannel settingsChannel;
+    private final GuildSettingsWriter settingsWriter;
+    private final Set<Long> joinedGuilds;
+    private final Set<Long> leftGuilds;
 
     public DatabaseModule(Radio radio, Modules modules)
     {
@@ -36,6 +65,34 @@ public class DatabaseModule extends Module
         initTables();
         System.getProperties().setProperty("org.jooq.no-logo", "true");
         System.getProperties().setProperty("org.jooq.no-tips", "true");
+
+        this.executor = new DatabaseExecutor(this, EXECUTOR_THREADS, EXECUTOR_QUEUE_SIZE);
+        this.guildDao = new GuildDao(executor, radio.getConfiguration().getString(ConfigOption.PREFIX));
+        this.guildSettingsDao = new GuildSettingsDao(executor);
+        this.spotifyTrackDao = new SpotifyTrackDao(executor);
+        this.playerDao = new PlayerDao(executor);
+
+        modules.addRepeatingTask(GuildSettingsCache::snapshot, TimeUnit.MINUTES, 1);
+
+        this.settingsChannel = new InvalidationChannel(SETTINGS_CHANNEL, radio,
+                guildId -> GuildSettingsCache.refresh(guildId, radio),
+                () -> GuildSettingsCache.reloadAll(radio));
+        this.settingsChannel.start();
+        modules.addRepeatingTask(settingsChannel::flush, "settings-notify", TimeUnit.MILLISECONDS, NOTIFY_INTERVAL_MILLIS);
+
+        this.settingsWriter = new GuildSettingsWriter(radio);
+        modules.addRepeatingTask(settingsWriter::flush, "settings-write", TimeUnit.MILLISECONDS, WRITE_INTERVAL_MILLIS);
+
+        this.joinedGuilds = new LinkedHashSet<>();
+        this.leftGuilds = new LinkedHashSet<>();
+        modules.addRepeatingTask(this::flushGuildRegistry, "guild-registry", TimeUnit.SECONDS, REGISTRY_INTERVAL_SECONDS);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+        {
+            settingsWriter.flush();
+            settingsChannel.flush();
+            flushGuildRegistry().orTimeout(10, TimeUnit.SECONDS).join();
+        }, "settings-write-shutdown"));
     }
 
     private void initTables()
@@ -43,6 +100,12 @@ public class DatabaseModule extends Module
         LOGGER.debug("Initialise table guilds.");
         initTable("guilds");
 
+        LOGGER.debug("Initialise table players.");
+        initTable("players");
+
+        LOGGER.debug("Initialise table spotify_tracks.");
+        initTable("spotify_tracks");
+
         LOGGER.debug("Table setup complete.");
     }
 
@@ -108,6 +171,44 @@ public class DatabaseModule extends Module
         }
     }
 
+    /**
+     * Lets the other instances know the guild's settings changed, sent with the next batch of notifications.
+     */
+    public void publishSettingsChange(long guildId)
+    {
+        settingsChannel.publish(guildId);
+    }
+
+    public DatabaseExecutor getExecutor()
+    {
+        return executor;
+    }
+
+    public GuildDao getGuildDao()
+    {
+        return guildDao;
+    }
+
+    public GuildSettingsDao getGuildSettingsDao()
+    {
+        return guildSettingsDao;
+    }
+
+    public SpotifyTrackDao getSpotifyTrackDao()
+    {
+        return spotifyTrackDao;
+    }
+
+    public PlayerDao getPlayerDao()
+    {
+        return playerDao;
+    }
+
+    public GuildSettingsWriter getSettingsWriter()
+    {
+        return settingsWriter;
+    }
+
     public DSLContext getContext()
     {
         return getContext(getConnection());
@@ -121,26 +222,89 @@ public class DatabaseModule extends Module
     public void close()
     {
         LOGGER.debug("Closed local database.");
+        settingsWriter.flush();
+        settingsChannel.close();
         pool.close();
     }
 
+    /**
+     * Writes the joins and leaves since the last call, leaves first so a guild that left and came back starts over.
+     */
+    public CompletableFuture<Void> flushGuildRegistry()
+    {
+        List<Long> joins;
+        List<Long> leaves;
+
+        synchronized (joinedGuilds)
+        {
+            if (joinedGuilds.isEmpty() && leftGuilds.isEmpty()) return CompletableFuture.completedFuture(null);
+
+            joins = new ArrayList<>(joinedGuilds);
+            leaves = new ArrayList<>(leftGuilds);
+            joinedGuilds.clear();
+            leftGuilds.clear();
+        }
+
+        return guildDao.remove(leaves)
+                .thenCompose(removed -> guildDao.register(joins))
+                .handle((registered, throwable) ->
+                {
+                    if (throwable != null)
+                    {
+                        radio.getLogger().error("An SQL error occurred", throwable);
+                        requeueGuildRegistry(joins, leaves);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Puts a failed flush back for the next one, both steps are idempotent so neither has to know how far it got.
+     * Leaves always go back, since leaves run first a guild that has rejoined since is still started over. Joins only
+     * go back if the guild hasn't left again since, a leave and a join from the same failed flush stay a reset.
+     */
+    private void requeueGuildRegistry(List<Long> joins, List<Long> leaves)
+    {
+        synchronized (joinedGuilds)
+        {
+            Set<Long> leftSince = new HashSet<>(leftGuilds);
+            leftGuilds.addAll(leaves);
+
+            for (long guildId : joins)
+            {
+                if (!leftSince.contains(guildId) || joinedGuilds.contains(guildId)) joinedGuilds.add(guildId);
+            }
+        }
+    }
+
+    private void queueLeave(long guildId)
+    {
+        synchronized (joinedGuilds)
+        {
+            joinedGuilds.remove(guildId);
+            leftGuilds.add(guildId);
+        }
+        GuildSettingsCache.removeCache(guildId);
+    }
+
     @Override
     public void onGuildLeave(GuildLeaveEvent event)
     {
-        DatabaseUtils.removeGuild(event.getGuild(), radio);
-        GuildSettingsCache.removeCache(event.getGuild().getIdLong());
+        queueLeave(event.getGuild().getIdLong());
     }
 
     @Override
     public void onUnavailableGuildLeave(UnavailableGuildLeaveEvent event)
     {
-        DatabaseUtils.removeGuild(event.getGuildIdLong(), radio);
-        GuildSettingsCache.removeCache(event.getGuildIdLong());
+        queueLeave(event.getGuildIdLong());
     }
 
     @Override
     public void onGuildJoin(GuildJoinEvent event)
     {
-        DatabaseUtils.registerGuild(event.getGuild(), radio);
+        synchronized (joinedGuilds)
+        {
+            joinedGuilds.add(event.getGuild().getIdLong());
+        }
     }
 }
@@ -0,0 +1,321 @@
+package net.toadless.radio.modules;
+
+import net.jodah.expiringmap.ExpirationPolicy;
+import net.jodah.expiringmap.ExpiringMap;
+import net.toadless.radio.Radio;
+import net.toadless.radio.objects.bot.ConfigOption;
+import net.toadless.radio.objects.lyrics.Lyrics;
+import net.toadless.radio.objects.lyrics.LyricsScraper;
+import net.toadless.radio.objects.lyrics.MusixmatchScraper;
+import net.toadless.radio.objects.module.Module;
+import net.toadless.radio.objects.module.Modules;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches lyrics on a small, bounded pool and keeps what it found in memory and on disk.
+ * <p>
+ * Lookups are keyed by a normalized form of the song, so everyone asking for the same song at once shares a single
+ * scrape. Songs without lyrics are remembered for {@link #NOT_FOUND_MINUTES}, so they aren't scraped again every time
+ * they play.
+ */
+public class LyricsModule extends Module
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(LyricsModule.class);
+
+    private static final File CACHE_FOLDER = new File("cache", "lyrics");
+    private static final int THREADS = 4;
+    private static final int QUEUE_SIZE = 64;
+    private static final int REQUEST_TIMEOUT_MILLIS = 5000;
+    private static final long LOOKUP_TIMEOUT_SECONDS = 15;
+    private static final long DISK_EXPIRY_DAYS = 30;
+    private static final long PREFETCH_INTERVAL_MILLIS = 2000; // across all guilds
+    private static final long RECENT_USE_MINUTES = 30;
+    private static final long NOT_FOUND_MINUTES = 60;
+
+    private final LyricsScraper scraper;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Lyrics> cache;
+    private final Map<String, Boolean> notFound;
+    private final Map<String, CompletableFuture<Lyrics>> inFlight;
+    private final boolean prefetch;
+    private final Map<Long, Long> recentGuilds;
+    private final AtomicLong nextPrefetch;
+
+    public LyricsModule(Radio radio, Modules modules)
+    {
+        super(radio, modules);
+
+        this.scraper = new MusixmatchScraper(REQUEST_TIMEOUT_MILLIS);
+        this.executor = new ThreadPoolExecutor(THREADS, THREADS, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(QUEUE_SIZE), runnable ->
+        {
+            Thread thread = new Thread(runnable, "lyrics-fetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.cache = ExpiringMap.builder()
+                .maxSize(1_000)
+                .expirationPolicy(ExpirationPolicy.ACCESSED)
+                .expiration(6, TimeUnit.HOURS)
+                .build();
+        this.notFound = ExpiringMap.builder()
+                .maxSize(5_000)
+                .expirationPolicy(ExpirationPolicy.CREATED)
+                .expiration(NOT_FOUND_MINUTES, TimeUnit.MINUTES)
+                .build();
+        this.inFlight = new HashMap<>();
+        this.prefetch = radio.getConfiguration().getBoolean(ConfigOption.LYRICSPREFETCH);
+        this.recentGuilds = ExpiringMap.builder()
+                .expirationPolicy(ExpirationPolicy.CREATED)
+                .expiration(RECENT_USE_MINUTES, TimeUnit.MINUTES)
+                .build();
+        this.nextPrefetch = new AtomicLong();
+
+        if (!CACHE_FOLDER.isDirectory() && !CACHE_FOLDER.mkdirs())
+        {
+            LOGGER.warn("Couldn't create " + CACHE_FOLDER + ", lyrics will only be cached in memory.");
+        }
+
+        modules.addRepeatingTask(this::pruneDisk, TimeUnit.HOURS, 6);
+    }
+
+    /**
+     * @return the lyrics, completed with null if nothing matched the song
+     */
+    public @NotNull CompletableFuture<Lyrics> getLyrics(@NotNull String song)
+    {
+        String key = normalize(song);
+        Lyrics cached = cache.get(key);
+
+        if (cached != null || notFound.containsKey(key))
+        {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<Lyrics> future;
+
+        synchronized (inFlight)
+        {
+            future = inFlight.get(key);
+
+            if (future != null)
+            {
+                return future;
+            }
+
+            future = new CompletableFuture<>();
+            inFlight.put(key, future);
+        }
+
+        CompletableFuture<Lyrics> lookup = future;
+        lookup.orTimeout(LOOKUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        try
+        {
+            executor.execute(() ->
+            {
+                try
+                {
+                    lookup.complete(load(key, song));
+                }
+                catch (Exception exception)
+                {
+                    lookup.completeExceptionally(exception);
+                }
+            });
+        }
+        catch (RejectedExecutionException exception)
+        {
+            lookup.completeExceptionally(exception);
+        }
+
+        lookup.whenComplete((lyrics, throwable) ->
+        {
+            synchronized (inFlight)
+            {
+                inFlight.remove(key, lookup);
+            }
+        });
+        return lookup;
+    }
+
+    /**
+     * Marks the guild as one whose tracks are worth prefetching lyrics for.
+     */
+    public void recordUse(long guildId)
+    {
+        recentGuilds.put(guildId, System.currentTimeMillis());
+    }
+
+    /**
+     * Fetches the lyrics for a track that just started in the background, so the usual lyrics command without
+     * arguments can be answered from memory. Skipped if the fetchers are busy with actual requests.
+     */
+    public void prefetch(long guildId, @NotNull String song)
+    {
+        String key = normalize(song);
+
+        if (!prefetch || !recentGuilds.containsKey(guildId) || cache.containsKey(key) || notFound.containsKey(key))
+        {
+            return;
+        }
+
+        if (executor.getQueue().size() > QUEUE_SIZE / 2)
+        {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long next = nextPrefetch.get();
+
+        if (now < next || !nextPrefetch.compareAndSet(next, now + PREFETCH_INTERVAL_MILLIS))
+        {
+            return;
+        }
+
+        getLyrics(song).exceptionally(throwable ->
+        {
+            LOGGER.debug("Failed to prefetch lyrics for " + song, throwable);
+            return null;
+        });
+    }
+
+    private @Nullable Lyrics load(String key, String song) throws IOException
+    {
+        File file = getFile(key);
+        Lyrics lyrics = read(file, key);
+
+        if (lyrics == null)
+        {
+            lyrics = scraper.fetch(song);
+
+            if (lyrics == null)
+            {
+                notFound.put(key, Boolean.TRUE); // only a clean miss, failed scrapes are retried
+                return null;
+            }
+            write(file, key, lyrics);
+        }
+
+        cache.put(key, lyrics);
+        return lyrics;
+    }
+
+    private @Nullable Lyrics read(File file, String key)
+    {
+        if (!file.isFile())
+        {
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(file.toPath())))
+        {
+            if (!readString(input).equals(key))
+            {
+                return null; // another song with the same file name
+            }
+            return new Lyrics(readString(input), readString(input), readString(input), readString(input));
+        }
+        catch (IOException exception)
+        {
+            LOGGER.warn("Discarding unreadable lyrics file " + file, exception);
+            file.delete();
+            return null;
+        }
+    }
+
+    private void write(File file, String key, Lyrics lyrics)
+    {
+        File temporary = new File(file.getPath() + ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(temporary.toPath())))
+        {
+            writeString(output, key);
+            writeString(output, lyrics.getTitle());
+            writeString(output, lyrics.getArtist());
+            writeString(output, lyrics.getUrl());
+            writeString(output, lyrics.getText());
+        }
+        catch (IOException exception)
+        {
+            LOGGER.warn("Failed to cache lyrics in " + file, exception);
+            return;
+        }
+
+        try
+        {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException exception)
+        {
+            LOGGER.warn("Failed to cache lyrics in " + file, exception);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException
+    {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8); // writeUTF is limited to 64kb
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private void pruneDisk()
+    {
+        File[] files = CACHE_FOLDER.listFiles();
+
+        if (files == null) return;
+
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(DISK_EXPIRY_DAYS);
+
+        for (File file : files)
+        {
+            if (file.lastModified() < cutoff && !file.delete())
+            {
+                LOGGER.warn("Failed to delete expired lyrics file " + file);
+            }
+        }
+    }
+
+    private static File getFile(String key)
+    {
+        return new File(CACHE_FOLDER, Integer.toHexString(key.hashCode()) + "-" + key.length());
+    }
+
+    /**
+     * Ignores case, repeated whitespace and bracketed suffixes like "(Official Video)".
+     */
+    public static @NotNull String normalize(@NotNull String song)
+    {
+        return song.replaceAll("[(\\[][^)\\]]*[)\\]]", " ")
+                .replaceAll("\\s+", " ")
+                .trim()
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,6 +4,7 @@ import com.sedmelluq.discord.lavaplayer.natives.ConnectorNativeLibLoader;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
 import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
 import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
+import com.sedmelluq.discord.lavaplayer.track.playback.NonAllocatingAudioFrameBuffer;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
@@ -11,20 +12,34 @@ import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.entities.channel.unions.AudioChannelUnion;
 import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
 import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
+import net.dv8tion.jda.api.managers.AudioManager;
 import net.toadless.radio.Radio;
+import net.toadless.radio.objects.bot.ConfigOption;
+import net.toadless.radio.objects.cache.GuildSettings;
 import net.toadless.radio.objects.cache.GuildSettingsCache;
+import net.toadless.radio.objects.cache.SpotifyTrackCache;
 import net.toadless.radio.objects.command.CommandEvent;
 import net.toadless.radio.objects.exception.CommandException;
 import net.toadless.radio.objects.module.Module;
 import net.toadless.radio.objects.module.Modules;
+import net.toadless.radio.objects.music.BroadcastManager;
 import net.toadless.radio.objects.music.GuildMusicManager;
+import net.toadless.radio.objects.music.LoadScheduler;
 import net.toadless.radio.objects.music.RepeatMode;
+import net.toadless.radio.objects.music.ResolutionCache;
 import net.toadless.radio.objects.music.SearchEngine;
+import net.toadless.radio.objects.music.SpotifySourceManager;
+import net.toadless.radio.objects.music.TrackCodec;
+import net.toadless.radio.objects.music.TransitionMetrics;
 import net.toadless.radio.objects.music.loaders.DefaultAudioLoader;
-import net.toadless.radio.objects.music.loaders.SilentAudioLoader;
+import net.toadless.radio.objects.node.NodeManager;
+import net.toadless.radio.objects.node.NodeProtocol;
+import net.toadless.radio.objects.node.RemoteNode;
 import net.toadless.radio.util.EmbedUtils;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
@@ -58,33 +73,77 @@ public class MusicModule extends Module
 
     private final Map<Long, GuildMusicManager> musicHandlers;
     private final AudioPlayerManager playerManager;
+    private final int spillThreshold;
+    private final long prefetchWindow;
+    private final TransitionMetrics transitionMetrics;
+    private final BroadcastManager broadcastManager;
+    private final NodeManager nodeManager;
+    private final LoadScheduler loadScheduler;
+    private final SpotifySourceManager spotifySourceManager;
+    private final ResolutionCache resolutionCache;
 
     public MusicModule(Radio radio, Modules modules)
     {
         super(radio, modules);
         this.musicHandlers = new ConcurrentHashMap<>();
         this.playerManager = new DefaultAudioPlayerManager();
+        this.spillThreshold = radio.getConfiguration().getInt(ConfigOption.SPILLTHRESHOLD); // 0 disables spilling
+        this.prefetchWindow = TimeUnit.SECONDS.toMillis(radio.getConfiguration().getInt(ConfigOption.PREFETCHSECONDS)); // 0 disables prefetching
+        this.transitionMetrics = new TransitionMetrics();
+        this.broadcastManager = radio.getConfiguration().getBoolean(ConfigOption.BROADCAST) ? new BroadcastManager(playerManager) : null;
 
+        int loadConcurrency = radio.getConfiguration().getInt(ConfigOption.LOADCONCURRENCY);
+        this.loadScheduler = new LoadScheduler(playerManager, loadConcurrency > 0 ? loadConcurrency : 8);
+        this.spotifySourceManager = new SpotifySourceManager(loadScheduler, new SpotifyTrackCache(radio, new TrackCodec(playerManager)));
+        this.resolutionCache = new ResolutionCache(loadScheduler, new TrackCodec(playerManager));
+
+        List<String> nodes = radio.getConfiguration().getList(ConfigOption.NODES);
+        String nodeSecret = radio.getConfiguration().getString(ConfigOption.NODESECRET);
+
+        if (!nodes.isEmpty() && (nodeSecret == null || nodeSecret.isBlank()))
+        {
+            radio.getLogger().error("music.node-secret is not set, playing everything locally");
+            nodes = List.of();
+        }
+
+        this.nodeManager = nodes.isEmpty() ? null : new NodeManager(nodes, nodeSecret);
+
+        playerManager.registerSourceManager(spotifySourceManager); // only decodes placeholders, never matches a query
+        spotifySourceManager.setRetryListener((guildId, track) ->
+        {
+            GuildMusicManager manager = musicHandlers.get(guildId);
+            if (manager != null) manager.retried(track);
+        });
         AudioSourceManagers.registerLocalSource(playerManager);
         AudioSourceManagers.registerRemoteSources(playerManager);
 
         playerManager.getConfiguration().setFilterHotSwapEnabled(true); // hotswap for the filters
+        playerManager.getConfiguration().setFrameBufferFactory(NonAllocatingAudioFrameBuffer::new); // frames are copied into the send handler's buffer
 
         this.modules.addRepeatingTask(this::cleanupPlayers, TimeUnit.MINUTES, 1);
 
+        if (nodeManager != null)
+        {
+            this.modules.addRepeatingTask(nodeManager::connect, TimeUnit.SECONDS, NodeProtocol.STATS_INTERVAL_SECONDS); // also reconnects
+        }
+
+        if (prefetchWindow > 0)
+        {
+            this.modules.addRepeatingTask(this::prefetchTracks, TimeUnit.SECONDS, 1);
+        }
+
         ConnectorNativeLibLoader.loadConnectorLibrary();
     }
 
     public GuildMusicManager getGuildMusicManager(Guild guild)
     {
-        GuildMusicManager manager = musicHandlers.get(guild.getIdLong());
-        if (musicHandlers.get(guild.getIdLong()) == null)
+        GuildMusicManager manager = musicHandlers.computeIfAbsent(guild.getIdLong(), id -> new GuildMusicManager(id, playerManager, spillThreshold, transitionMetrics, broadcastManager, nodeManager, modules.get(LyricsModule.class)));
+        AudioManager audioManager = guild.getAudioManager();
+
+        if (audioManager.getSendingHandler() != manager.getSendHandler())
         {
-            manager = new GuildMusicManager(playerManager);
-            musicHandlers.put(guild.getIdLong(), manager);
+            audioManager.setSendingHandler(manager.getSendHandler());
         }
-
-        guild.getAudioManager().setSendingHandler(manager.getSendHandler());
         return manager;
     }
 
@@ -93,6 +152,31 @@ public class MusicModule extends Module
         return playerManager;
     }
 
+    public LoadScheduler getLoadScheduler()
+    {
+        return loadScheduler;
+    }
+
+    public ResolutionCache getResolutionCache()
+    {
+        return resolutionCache;
+    }
+
+    public SpotifySourceManager getSpotifySourceManager()
+    {
+        return spotifySourceManager;
+    }
+
+    public TransitionMetrics getTransitionMetrics()
+    {
+        return transitionMetrics;
+    }
+
+    public Map<Long, GuildMusicManager> getGuildMusicManagers()
+    {
+        return Collections.unmodifiableMap(musicHandlers);
+    }
+
     @Override
     public void onMessageReactionAdd(@NotNull MessageReactionAddEvent event)
     {
@@ -127,6 +211,17 @@ public class MusicModule extends Module
             return;
         }
 
+        // the DJ check reads the settings from the cache, so only react once the guild is in it
+        GuildSettingsCache.withSettings(event.getGuild().getIdLong(), radio, event.getJDA().getCallbackPool(), settings -> handleControllerReaction(event, manager, member))
+                .exceptionally(throwable ->
+                {
+                    radio.getLogger().error("A controller exception occurred", throwable);
+                    return null;
+                });
+    }
+
+    private void handleControllerReaction(MessageReactionAddEvent event, GuildMusicManager manager, Member member)
+    {
         if (!isUserDj(member))
         {
             event.getChannel().sendMessage(member.getAsMention() + ", you need to be a DJ to perform this action!").queue();
@@ -226,6 +321,21 @@ public class MusicModule extends Module
         EmbedUtils.sendSuccess(manager.getChannel(), member.getAsMention() + " has shuffled the player.");
     }
 
+    private void prefetchTracks()
+    {
+        for (Map.Entry<Long, GuildMusicManager> entry : musicHandlers.entrySet())
+        {
+            try
+            {
+                entry.getValue().getScheduler().prefetch(prefetchWindow);
+            }
+            catch (Exception exception)
+            {
+                radio.getLogger().warn("Failed to prefetch for guild " + entry.getKey(), exception);
+            }
+        }
+    }
+
     public void cleanupPlayers()
     {
         this.radio.getShardManager().getGuilds().forEach(guild ->
@@ -240,11 +350,13 @@ public class MusicModule extends Module
             long humansInVC = ac.getMembers().stream().filter(member -> !member.getUser().isBot()).count();
             if (humansInVC == 0)
             {
-                manager.getPlayer().destroy();
+                manager.destroy();
                 manager.leave(guild);
                 manager.getScheduler().clear();
+                manager.getScheduler().clearHistory(); // also releases any spill files
                 manager.unbind();
                 this.musicHandlers.remove(guild.getIdLong());
+                releaseSendHandler(guild, manager);
             }
         });
     }
@@ -258,11 +370,14 @@ public class MusicModule extends Module
         MessageChannel channel = manager.getChannel();
 
         manager.removeOldController();
-        manager.getPlayer().destroy();
+        manager.destroy();
         manager.leave(guild);
         manager.getScheduler().clear();
+        manager.getScheduler().clearHistory(); // also releases any spill files
         manager.unbind();
+        manager.setPipeline(null); // writes the summary of an import that is still going
         this.musicHandlers.remove(guild.getIdLong());
+        releaseSendHandler(guild, manager);
 
         if (channel != null)
         {
@@ -270,21 +385,25 @@ public class MusicModule extends Module
         }
     }
 
+    private void releaseSendHandler(Guild guild, GuildMusicManager manager)
+    {
+        guild.getAudioManager().setSendingHandler(null);
+        manager.getSendHandler().release();
+    }
+
     public boolean isUserDj(CommandEvent event)
     {
-        GuildSettingsCache guildSettingsCache = GuildSettingsCache.getCache(event.getGuildIdLong(), radio);
-        long djRole = guildSettingsCache.getDjRole();
+        long djRole = GuildSettingsCache.getDjRole(event.getGuildIdLong(), radio);
 
-        if (djRole == -1L) return true; // return true if dj role not setup
+        if (djRole == GuildSettings.NO_DJ_ROLE) return true; // return true if dj role not setup
         else return event.getMember().getRoles().stream().anyMatch(role -> role.getIdLong() == djRole);
     }
 
     public boolean isUserDj(Member member)
     {
-        GuildSettingsCache guildSettingsCache = GuildSettingsCache.getCache(member.getGuild().getIdLong(), radio);
-        long djRole = guildSettingsCache.getDjRole();
+        long djRole = GuildSettingsCache.getDjRole(member.getGuild().getIdLong(), radio);
 
-        if (djRole == -1L) return true; // return true if dj role not setup
+        if (djRole == GuildSettings.NO_DJ_ROLE) return true; // return true if dj role not setup
         else return member.getRoles().stream().anyMatch(role -> role.getIdLong() == djRole);
     }
 
@@ -310,7 +429,7 @@ public class MusicModule extends Module
             };
         }
 
-        getPlayerManager().loadItemOrdered(manager, query, new DefaultAudioLoader(manager, failure, event, channel));
+        resolutionCache.load(event.getGuildIdLong(), manager, query, new DefaultAudioLoader(manager, failure, event, channel));
     }
 
     public int getPlayers()
@@ -318,15 +437,29 @@ public class MusicModule extends Module
         return musicHandlers.size();
     }
 
-    public Radio getRadio()
+    public int getPassthroughPlayers()
     {
-        return this.radio;
+        return (int) musicHandlers.values().stream().filter(GuildMusicManager::isPassthrough).count();
     }
 
-    public void playFromSpotify(CommandEvent event, String query, VoiceChannel channel) // separate method to avoid spamming channel
+    public int getBroadcasts()
     {
-        GuildMusicManager manager = getGuildMusicManager(event.getGuild());
-        getPlayerManager().loadItemOrdered(manager, query, new SilentAudioLoader(manager, event, channel));
+        return broadcastManager == null ? 0 : broadcastManager.getBroadcastCount();
+    }
+
+    public int getBroadcastSubscribers()
+    {
+        return broadcastManager == null ? 0 : broadcastManager.getSubscriberCount();
+    }
+
+    public List<RemoteNode> getNodes()
+    {
+        return nodeManager == null ? Collections.emptyList() : nodeManager.getNodes();
+    }
+
+    public Radio getRadio()
+    {
+        return this.radio;
     }
 
     @Override
@@ -0,0 +1,275 @@
+package net.toadless.radio.modules;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
+import net.dv8tion.jda.api.entities.channel.unions.AudioChannelUnion;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.toadless.radio.Radio;
+import net.toadless.radio.jooq.tables.records.PlayersRecord;
+import net.toadless.radio.objects.module.Module;
+import net.toadless.radio.objects.module.Modules;
+import net.toadless.radio.objects.music.GuildMusicManager;
+import net.toadless.radio.objects.music.RepeatMode;
+import net.toadless.radio.objects.music.TrackCodec;
+import net.toadless.radio.objects.music.TrackScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static net.toadless.radio.jooq.Tables.PLAYERS;
+
+public class PersistenceModule extends Module
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistenceModule.class);
+    private static final long SNAPSHOT_INTERVAL = 15;
+
+    private final Set<Long> persistedGuilds;
+
+    public PersistenceModule(Radio radio, Modules modules)
+    {
+        super(radio, modules);
+        this.persistedGuilds = ConcurrentHashMap.newKeySet();
+
+        modules.addRepeatingTask(this::snapshot, "player-snapshot", SNAPSHOT_INTERVAL, TimeUnit.SECONDS, SNAPSHOT_INTERVAL);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "player-snapshot-shutdown"));
+    }
+
+    public void snapshot()
+    {
+        snapshot(false);
+    }
+
+    /**
+     * Writes pending changes before shutdown. Voice connections may already be closing at this point, so missing
+     * players keep their last snapshot instead of being removed.
+     */
+    public void flush()
+    {
+        snapshot(true);
+    }
+
+    /**
+     * Writes every changed player to the database in a single batch. Players that only progressed through their
+     * current track get a position update, players that are gone have their snapshot removed. The queue and history
+     * are only rewritten when they changed beyond tracks moving from one to the other.
+     */
+    private synchronized void snapshot(boolean shutdown)
+    {
+        DatabaseModule databaseModule = radio.getModules().get(DatabaseModule.class);
+        MusicModule musicModule = radio.getModules().get(MusicModule.class);
+
+        if (databaseModule.getPool().isClosed())
+        {
+            return;
+        }
+
+        TrackCodec codec = new TrackCodec(musicModule.getPlayerManager());
+        List<Query> queries = new ArrayList<>();
+        List<TrackScheduler> written = new ArrayList<>();
+        List<TrackScheduler> rewritten = new ArrayList<>();
+        Set<Long> active = new HashSet<>();
+
+        try (Connection connection = databaseModule.getConnection())
+        {
+            var context = databaseModule.getContext(connection);
+
+            for (Map.Entry<Long, GuildMusicManager> entry : musicModule.getGuildMusicManagers().entrySet())
+            {
+                long guildId = entry.getKey();
+                GuildMusicManager manager = entry.getValue();
+                Guild guild = radio.getShardManager().getGuildById(guildId);
+
+                if (guild == null)
+                {
+                    continue;
+                }
+
+                AudioChannelUnion voiceChannel = guild.getAudioManager().getConnectedChannel();
+
+                if (voiceChannel == null)
+                {
+                    continue;
+                }
+
+                active.add(guildId);
+                TrackScheduler scheduler = manager.getScheduler();
+                AudioTrack current = manager.getPlayer().getPlayingTrack();
+
+                if (scheduler.clearDirty() || !persistedGuilds.contains(guildId))
+                {
+                    TrackScheduler.PersistedQueue captured = scheduler.capture(!persistedGuilds.contains(guildId));
+                    (captured.isFull() ? rewritten : written).add(scheduler);
+
+                    PlayersRecord record = new PlayersRecord()
+                            .setGuildId(guildId)
+                            .setVoiceChannelId(voiceChannel.getIdLong())
+                            .setTextChannelId(manager.getChannel() == null ? -1L : manager.getChannel().getIdLong())
+                            .setRepeatMode(scheduler.getRepeatMode().name())
+                            .setVolume(manager.getVolume())
+                            .setBassBoost(scheduler.getBassBoostPercentage())
+                            .setPaused(manager.getPaused())
+                            .setPosition(current == null ? 0L : current.getPosition())
+                            .setCurrent(current == null ? null : codec.encodeAll(List.of(current)))
+                            .setQueueOffset(captured.getQueueOffset())
+                            .setHistoryHead(captured.getHistoryHead());
+
+                    if (captured.isFull())
+                    {
+                        record.setQueue(captured.getQueue()).setHistory(captured.getHistory());
+                        queries.add(context.insertInto(PLAYERS).set(record).onDuplicateKeyUpdate().set(record));
+                    }
+                    else
+                    {
+                        // the queue and history columns keep the last full capture, restore() applies the offset and head to them
+                        record.changed(PLAYERS.GUILD_ID, false);
+                        queries.add(context.update(PLAYERS).set(record).where(PLAYERS.GUILD_ID.eq(guildId)));
+                    }
+                }
+                else if (current != null && !manager.getPaused() && persistedGuilds.contains(guildId))
+                {
+                    queries.add(context.update(PLAYERS)
+                            .set(PLAYERS.POSITION, current.getPosition())
+                            .where(PLAYERS.GUILD_ID.eq(guildId)));
+                }
+            }
+
+            Set<Long> removed = persistedGuilds.stream().filter(id -> !active.contains(id)).collect(Collectors.toSet());
+
+            if (!removed.isEmpty() && !shutdown)
+            {
+                queries.add(context.deleteFrom(PLAYERS).where(PLAYERS.GUILD_ID.in(removed)));
+            }
+
+            if (queries.isEmpty())
+            {
+                return;
+            }
+
+            context.batch(queries).execute();
+
+            if (!shutdown) persistedGuilds.removeAll(removed);
+            persistedGuilds.addAll(active);
+
+            LOGGER.debug("Snapshot wrote " + (written.size() + rewritten.size()) + " players (" + rewritten.size() + " in full), " + removed.size() + " removed.");
+        }
+        catch (Exception exception)
+        {
+            // retry these on the next run, the offset and head keep counting from the last full capture so they can be retried as they are
+            written.forEach(TrackScheduler::markDirty);
+            rewritten.forEach(TrackScheduler::markQueueChanged);
+            radio.getLogger().error("An SQL error occurred", exception);
+        }
+    }
+
+    @Override
+    public void onReady(@NotNull ReadyEvent event)
+    {
+        Set<Long> guildIds = event.getJDA().getGuildCache().applyStream(guilds -> guilds.map(Guild::getIdLong).collect(Collectors.toSet()));
+
+        if (guildIds.isEmpty())
+        {
+            return;
+        }
+
+        radio.getModules().get(DatabaseModule.class).getPlayerDao().fetch(guildIds)
+                .thenAcceptAsync(records -> restoreAll(event.getJDA(), records), event.getJDA().getCallbackPool())
+                .exceptionally(throwable ->
+                {
+                    radio.getLogger().error("An SQL error occurred", throwable);
+                    return null;
+                });
+    }
+
+    private void restoreAll(JDA jda, List<PlayersRecord> records)
+    {
+        int restored = 0;
+
+        for (PlayersRecord record : records)
+        {
+            persistedGuilds.add(record.getGuildId()); // removed on the next snapshot if the restore fails
+
+            try
+            {
+                if (restore(jda.getGuildById(record.getGuildId()), record)) restored++;
+            }
+            catch (Exception exception)
+            {
+                LOGGER.warn("Failed to restore the player for guild " + record.getGuildId(), exception);
+            }
+        }
+
+        LOGGER.info("Restored " + restored + " / " + records.size() + " players on shard " + jda.getShardInfo().getShardId() + ".");
+    }
+
+    private boolean restore(Guild guild, PlayersRecord record) throws Exception
+    {
+        if (guild == null)
+        {
+            return false;
+        }
+
+        VoiceChannel voiceChannel = guild.getVoiceChannelById(record.getVoiceChannelId());
+
+        if (voiceChannel == null || voiceChannel.getMembers().stream().allMatch(member -> member.getUser().isBot()))
+        {
+            return false;
+        }
+
+        MusicModule musicModule = radio.getModules().get(MusicModule.class);
+        TrackCodec codec = new TrackCodec(musicModule.getPlayerManager());
+
+        List<AudioTrack> current = record.getCurrent() == null ? List.of() : codec.decodeAll(record.getCurrent());
+        List<AudioTrack> queue = codec.decodeAll(record.getQueue());
+        queue = queue.subList(Math.min(record.getQueueOffset(), queue.size()), queue.size());
+
+        List<AudioTrack> history = new ArrayList<>();
+
+        if (record.getHistoryHead() != null)
+        {
+            history.addAll(codec.decodeAll(record.getHistoryHead()));
+        }
+        history.addAll(codec.decodeAll(record.getHistory()));
+
+        if (current.isEmpty() && queue.isEmpty())
+        {
+            return false;
+        }
+
+        GuildMusicManager manager = musicModule.getGuildMusicManager(guild);
+        TextChannel textChannel = guild.getTextChannelById(record.getTextChannelId());
+
+        if (textChannel != null)
+        {
+            manager.bind(textChannel);
+        }
+
+        manager.join(voiceChannel);
+        manager.setVolume(record.getVolume());
+        manager.getScheduler().bassBoost(record.getBassBoost());
+
+        AudioTrack playing = current.isEmpty() ? null : current.get(0);
+
+        if (playing != null && playing.isSeekable())
+        {
+            playing.setPosition(record.getPosition());
+        }
+
+        manager.getScheduler().restore(playing, queue, history, RepeatMode.valueOf(record.getRepeatMode()));
+        manager.getPlayer().setPaused(record.getPaused());
+        return true;
+    }
+}
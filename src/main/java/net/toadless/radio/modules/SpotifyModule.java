@@ -1,6 +1,7 @@
 package net.toadless.radio.modules;
 
 import com.neovisionaries.i18n.CountryCode;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
 import net.toadless.radio.Radio;
 import net.toadless.radio.objects.bot.ConfigOption;
@@ -10,26 +11,30 @@ import net.toadless.radio.objects.exception.CommandResultException;
 import net.toadless.radio.objects.module.Module;
 import net.toadless.radio.objects.module.Modules;
 import net.toadless.radio.objects.music.GuildMusicManager;
-import net.toadless.radio.objects.music.SearchEngine;
-import net.toadless.radio.util.EmbedUtils;
+import net.toadless.radio.objects.music.ResolutionPipeline;
+import net.toadless.radio.objects.spotify.SpotifyClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import se.michaelthelin.spotify.SpotifyApi;
+import se.michaelthelin.spotify.model_objects.specification.ArtistSimplified;
+import se.michaelthelin.spotify.model_objects.specification.Paging;
 import se.michaelthelin.spotify.model_objects.specification.Track;
-import se.michaelthelin.spotify.requests.authorization.client_credentials.ClientCredentialsRequest;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 
 public class SpotifyModule extends Module
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(SpotifyModule.class);
+    private static final int ALBUM_PAGE_SIZE = 50;
+    private static final int PLAYLIST_PAGE_SIZE = 100;
 
     private final SpotifyApi spotify;
-    private final ClientCredentialsRequest clientCredentialsRequest;
+    private final SpotifyClient client;
 
     public SpotifyModule(Radio radio, Modules modules)
     {
@@ -40,24 +45,7 @@ public class SpotifyModule extends Module
                 .setClientSecret(radio.getConfiguration().getString(ConfigOption.SPOTIFYSECRET))
                 .build();
 
-        this.clientCredentialsRequest = this.spotify.clientCredentials().build();
-        modules.addRepeatingTask(this::refreshAccessToken, TimeUnit.HOURS, 1);
-    }
-
-    private void refreshAccessToken()
-    {
-        LOGGER.info("Attempting to update the access token.");
-
-        try
-        {
-            this.spotify.setAccessToken(this.clientCredentialsRequest.execute().getAccessToken());
-            LOGGER.info("Updating the access token succeeded.");
-        }
-        catch(Exception e)
-        {
-            LOGGER.error("Updating the access token failed. Retrying in 20 seconds", e);
-            this.modules.addTask(this::refreshAccessToken, TimeUnit.SECONDS, 20);
-        }
+        this.client = new SpotifyClient(spotify); // fetches a token on the first request
     }
 
     public void load(CommandEvent event, Matcher matcher, Consumer<CommandException> failure, VoiceChannel voiceChannel, GuildMusicManager manager)
@@ -66,91 +54,154 @@ public class SpotifyModule extends Module
 
         switch (matcher.group("type"))
         {
-            case "album" -> loadAlbum(identifier, failure, event, voiceChannel);
-            case "track" -> loadTrack(identifier, failure, event, manager);
-            case "playlist" -> loadPlaylist(identifier, failure, event, voiceChannel);
-            case "artist" -> loadArtist(identifier, failure, event, voiceChannel);
+            case "album" -> loadAlbum(identifier, failure, event, voiceChannel, manager);
+            case "track" -> loadTrack(identifier, failure, event, voiceChannel, manager);
+            case "playlist" -> loadPlaylist(identifier, failure, event, voiceChannel, manager);
+            case "artist" -> loadArtist(identifier, failure, event, voiceChannel, manager);
         }
     }
 
-    private void loadAlbum(String id, Consumer<CommandException> failure, CommandEvent event, VoiceChannel voiceChannel)
+    private void loadAlbum(String id, Consumer<CommandException> failure, CommandEvent event, VoiceChannel voiceChannel, GuildMusicManager manager)
+    {
+        loadPages(offset -> client.execute(() -> this.spotify.getAlbumsTracks(id).offset(offset).limit(ALBUM_PAGE_SIZE).build().executeAsync()),
+                track -> createPlaceholder(track.getId(), track.getArtists(), track.getName(), track.getDurationMs(), null),
+                0, null, event, voiceChannel, manager, throwable ->
+                        failure.accept(new CommandResultException(throwable.getMessage().contains("invalid id") ? "Album not found" : "There was an error while loading the album")));
+    }
+
+    /**
+     * Queues a placeholder like the other links do, so the match is shared with imports of the same track and cached.
+     */
+    private void loadTrack(String id, Consumer<CommandException> failure, CommandEvent event, VoiceChannel voiceChannel, GuildMusicManager manager)
     {
-        this.spotify.getAlbumsTracks(id).build().executeAsync().thenAcceptAsync(tracks ->
+        client.getTrack(id).thenAcceptAsync(track ->
         {
-            var items = tracks.getItems();
-            var toLoad = new ArrayList<String>();
+            AudioTrack placeholder = track == null ? null : createPlaceholder(track);
 
-            for(var track : items)
+            if (placeholder == null)
             {
-                toLoad.add("ytsearch:" + track.getArtists()[0].getName() + " " + track.getName());
+                failure.accept(new CommandResultException("Track not found"));
+                return;
             }
 
-            loadTracks(event, toLoad, voiceChannel);
+            if (manager.isPlaying())
+            {
+                event.replySuccess("Added **" + placeholder.getInfo().title + "** to the queue.");
+            }
+            manager.play(voiceChannel, placeholder, event.getAuthor()); //Safe due to CommandChecks
         }).exceptionally(throwable ->
         {
-            failure.accept(new CommandResultException(throwable.getMessage().contains("invalid id") ? "Album not found" : "There was an error while loading the album"));
+            failure.accept(new CommandResultException(throwable.getMessage().contains("invalid id") ? "Track not found" : "There was an error while loading the track"));
             return null;
         });
     }
 
-    private void loadTrack(String id, Consumer<CommandException> failure, CommandEvent event, GuildMusicManager manager)
+    private void loadPlaylist(String id, Consumer<CommandException> failure, CommandEvent event, VoiceChannel voiceChannel, GuildMusicManager manager)
     {
-        this.spotify.getTrack(id).build().executeAsync().thenAcceptAsync(track ->
-                this.modules.get(MusicModule.class).play(manager, track.getArtists()[0].getName() + " " + track.getName(), failure, event, SearchEngine.YOUTUBE)
-        ).exceptionally(throwable ->
-        {
-            failure.accept(new CommandResultException(throwable.getMessage().contains("invalid id") ? "Track not found" : "There was an error while loading the track"));
-            return null;
-        });
+        loadPages(offset -> client.execute(() -> this.spotify.getPlaylistsItems(id).offset(offset).limit(PLAYLIST_PAGE_SIZE).build().executeAsync()),
+                item -> item.getTrack() instanceof Track ? createPlaceholder((Track) item.getTrack()) : null, // skips episodes
+                0, null, event, voiceChannel, manager, throwable ->
+                        failure.accept(new CommandResultException(throwable.getMessage().contains("Invalid playlist Id") ? "Playlist not found" : "There was an error while loading the playlist")));
     }
 
-    private void loadPlaylist(String id, Consumer<CommandException> failure, CommandEvent event, VoiceChannel voiceChannel)
+    private void loadArtist(String id, Consumer<CommandException> failure, CommandEvent event, VoiceChannel voiceChannel, GuildMusicManager manager)
     {
-        this.spotify.getPlaylistsItems(id).build().executeAsync().thenAcceptAsync(tracks ->
+        // used SE because it was in the docs and all others dont work :/
+        client.execute(() -> this.spotify.getArtistsTopTracks(id, CountryCode.SE).build().executeAsync()).thenAcceptAsync(tracks ->
         {
-            var items = tracks.getItems();
-            var toLoad = new ArrayList<String>();
+            List<AudioTrack> toQueue = new ArrayList<>();
 
-            for(var item : items)
+            for (var track : tracks)
             {
-                var track = (Track) item.getTrack();
-                toLoad.add("ytsearch:" + track.getArtists()[0].getName() + " " + track.getName());
+                AudioTrack placeholder = createPlaceholder(track);
+                if (placeholder != null) toQueue.add(placeholder);
             }
 
-            loadTracks(event, toLoad, voiceChannel);
+            ResolutionPipeline pipeline = new ResolutionPipeline(event.getChannel());
+            manager.setPipeline(pipeline);
+            pipeline.start(tracks.length);
+            pipeline.pageQueued(toQueue);
+            manager.playAll(voiceChannel, toQueue, event.getAuthor()); //Safe due to CommandChecks
+            pipeline.loaded();
         }).exceptionally(throwable ->
         {
-            failure.accept(new CommandResultException(throwable.getMessage().contains("Invalid playlist Id") ? "Playlist not found" : "There was an error while loading the playlist"));
+            failure.accept(new CommandResultException(throwable.getMessage().contains("Invalid artist Id") ? "Artist not found" : "There was an error while loading the artist"));
             return null;
         });
     }
 
-    private void loadArtist(String id, Consumer<CommandException> failure, CommandEvent event, VoiceChannel voiceChannel)
+    /**
+     * Queues one page of placeholders at a time, in order, fetching the next page only once the previous one is queued.
+     * The pipeline is created with the first page and reports on the import from there on.
+     */
+    private <T> void loadPages(Function<Integer, CompletableFuture<Paging<T>>> pages, Function<T, AudioTrack> converter, int offset, ResolutionPipeline pipeline,
+                               CommandEvent event, VoiceChannel voiceChannel, GuildMusicManager manager, Consumer<Throwable> failure)
     {
-        // used SE because it was in the docs and all others dont work :/
-        this.spotify.getArtistsTopTracks(id, CountryCode.SE).build().executeAsync().thenAcceptAsync(tracks ->
+        pages.apply(offset).thenAcceptAsync(page ->
         {
-            var toLoad = new ArrayList<String>();
+            if (offset > 0 && this.modules.get(MusicModule.class).getGuildMusicManagers().get(event.getGuildIdLong()) != manager)
+            {
+                pipeline.interrupted(); // the player was cleaned up in the meantime
+                return;
+            }
+
+            List<AudioTrack> toQueue = new ArrayList<>();
+
+            for (T item : page.getItems())
+            {
+                AudioTrack placeholder = converter.apply(item);
+                if (placeholder != null) toQueue.add(placeholder);
+            }
+
+            ResolutionPipeline current = pipeline;
 
-            for(var track : tracks)
+            if (current == null)
             {
-                toLoad.add("ytsearch:" + track.getArtists()[0].getName() + " " + track.getName());
+                current = new ResolutionPipeline(event.getChannel());
+                manager.setPipeline(current);
+                current.start(page.getTotal());
             }
 
-            loadTracks(event, toLoad, voiceChannel);
+            current.pageQueued(toQueue);
+            manager.playAll(voiceChannel, toQueue, event.getAuthor()); //Safe due to CommandChecks
+
+            if (page.getNext() != null && page.getItems().length > 0)
+            {
+                loadPages(pages, converter, offset + page.getItems().length, current, event, voiceChannel, manager, failure);
+            }
+            else
+            {
+                current.loaded();
+            }
         }).exceptionally(throwable ->
         {
-            failure.accept(new CommandResultException(throwable.getMessage().contains("Invalid artist Id") ? "Artist not found" : "There was an error while loading the artist"));
+            if (pipeline == null)
+            {
+                failure.accept(throwable);
+            }
+            else
+            {
+                LOGGER.warn("Failed to load page at offset " + offset, throwable);
+                pipeline.interrupted();
+            }
             return null;
         });
     }
 
-    private void loadTracks(CommandEvent event, List<String> toLoad, VoiceChannel voiceChannel)
+    private AudioTrack createPlaceholder(Track track)
     {
-        EmbedUtils.sendSuccess(event.getChannel(), "Queueing " + toLoad.size() + " tracks!");
+        String isrc = track.getExternalIds() == null ? null : track.getExternalIds().getExternalIds().get("isrc");
+        return createPlaceholder(track.getId(), track.getArtists(), track.getName(), track.getDurationMs(), isrc);
+    }
 
-        toLoad.forEach(track -> {
-            this.modules.get(MusicModule.class).playFromSpotify(event, track, voiceChannel);
-        });
+    private AudioTrack createPlaceholder(String id, ArtistSimplified[] artists, String title, Integer duration, String isrc)
+    {
+        if (id == null)
+        {
+            return null; // local files have no id and can't be searched reliably
+        }
+
+        String artist = artists == null || artists.length == 0 ? "" : artists[0].getName();
+        return this.modules.get(MusicModule.class).getSpotifySourceManager().createTrack(id, artist, title, duration == null ? 0 : duration, isrc);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package net.toadless.radio.node;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
+import com.sedmelluq.discord.lavaplayer.track.playback.NonAllocatingAudioFrameBuffer;
+import net.toadless.radio.objects.node.NodeProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * A standalone process that decodes and encodes tracks for Radio, see {@link NodeProtocol}.
+ * <p>
+ * Start it with {@code java -cp Radio.jar net.toadless.radio.node.AudioNode [port] [bind address]} or
+ * {@code ./gradlew runNode}, then list it under {@code music.nodes} in Radio's config. The {@code RADIO_NODE_SECRET}
+ * environment variable must match {@code music.node-secret}, connections that don't know it are closed.
+ * <p>
+ * Only remote sources are registered, so a connection can never make the node read its own files.
+ */
+public class AudioNode
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(AudioNode.class);
+
+    private final AudioPlayerManager playerManager;
+    private final int port;
+    private final InetAddress address;
+    private final String secret;
+
+    public AudioNode(int port, InetAddress address, String secret)
+    {
+        this.port = port;
+        this.address = address;
+        this.secret = secret;
+        this.playerManager = new DefaultAudioPlayerManager();
+
+        AudioSourceManagers.registerRemoteSources(playerManager);
+
+        playerManager.getConfiguration().setFilterHotSwapEnabled(true);
+        playerManager.getConfiguration().setFrameBufferFactory(NonAllocatingAudioFrameBuffer::new);
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : NodeProtocol.DEFAULT_PORT;
+        InetAddress address = InetAddress.getByName(args.length > 1 ? args[1] : "127.0.0.1");
+        String secret = System.getenv("RADIO_NODE_SECRET");
+
+        if (secret == null || secret.isBlank())
+        {
+            LOGGER.error("RADIO_NODE_SECRET is not set, it has to match music.node-secret in Radio's config");
+            System.exit(-1);
+        }
+
+        new AudioNode(port, address, secret).run();
+    }
+
+    public void run() throws IOException
+    {
+        try (ServerSocket server = new ServerSocket(port, 50, address))
+        {
+            LOGGER.info("Audio node listening on " + address.getHostAddress() + ":" + port);
+
+            while (!server.isClosed())
+            {
+                Socket socket = server.accept();
+                LOGGER.info("Accepted connection from " + socket.getRemoteSocketAddress());
+                new NodeConnection(playerManager, socket, secret).start();
+            }
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package net.toadless.radio.node;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import net.toadless.radio.objects.node.NodeProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the sessions of one connected Radio instance, once it has passed the handshake. A single pump thread drains
+ * every player as far as its credits allow, so slow or paused sessions never hold up the others.
+ */
+public class NodeConnection
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(NodeConnection.class);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final AudioPlayerManager playerManager;
+    private final Socket socket;
+    private final DataOutputStream output;
+    private final Map<Long, Session> sessions;
+    private final ScheduledExecutorService pump;
+    private final String secret;
+
+    public NodeConnection(AudioPlayerManager playerManager, Socket socket, String secret) throws IOException
+    {
+        this.playerManager = playerManager;
+        this.socket = socket;
+        this.secret = secret;
+        this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.sessions = new ConcurrentHashMap<>();
+        this.pump = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "node-pump-" + socket.getRemoteSocketAddress()));
+
+        socket.setTcpNoDelay(true);
+    }
+
+    public void start()
+    {
+        Thread reader = new Thread(this::read, "node-reader-" + socket.getRemoteSocketAddress());
+        reader.start();
+    }
+
+    private void read()
+    {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream())))
+        {
+            if (!authenticate(input))
+            {
+                LOGGER.warn("Connection from " + socket.getRemoteSocketAddress() + " failed the handshake");
+                return;
+            }
+
+            pump.scheduleAtFixedRate(this::pump, 10, 10, TimeUnit.MILLISECONDS);
+            pump.scheduleAtFixedRate(this::sendStats, 0, NodeProtocol.STATS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+            while (true)
+            {
+                handle(ByteBuffer.wrap(NodeProtocol.read(input)));
+            }
+        }
+        catch (IOException exception)
+        {
+            LOGGER.info("Connection from " + socket.getRemoteSocketAddress() + " closed");
+        }
+        finally
+        {
+            close();
+        }
+    }
+
+    /**
+     * Sends a random nonce and checks that the answer is the nonce signed with the shared secret.
+     */
+    private boolean authenticate(DataInputStream input) throws IOException
+    {
+        byte[] nonce = new byte[NodeProtocol.NONCE_LENGTH];
+        RANDOM.nextBytes(nonce);
+
+        ByteBuffer hello = NodeProtocol.message(NodeProtocol.HELLO, 0, nonce.length);
+        hello.put(nonce);
+
+        socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(NodeProtocol.HANDSHAKE_TIMEOUT_SECONDS));
+        NodeProtocol.write(output, hello);
+        ByteBuffer auth = ByteBuffer.wrap(NodeProtocol.read(input));
+        socket.setSoTimeout(0);
+
+        if (auth.remaining() < 1 + Long.BYTES || auth.get() != NodeProtocol.AUTH)
+        {
+            return false;
+        }
+
+        auth.getLong();
+        byte[] signature = new byte[auth.remaining()];
+        auth.get(signature);
+
+        return MessageDigest.isEqual(signature, NodeProtocol.sign(secret, nonce));
+    }
+
+    /**
+     * A message that can't be handled only fails its own session, the connection and the other sessions carry on.
+     */
+    private void handle(ByteBuffer message)
+    {
+        if (message.remaining() < 1 + Long.BYTES)
+        {
+            LOGGER.warn("Received a truncated message from " + socket.getRemoteSocketAddress());
+            return;
+        }
+
+        byte opcode = message.get();
+        long id = message.getLong();
+        Session session = sessions.get(id);
+
+        try
+        {
+            switch (opcode)
+            {
+                case NodeProtocol.PLAY -> play(id, message);
+                case NodeProtocol.STOP ->
+                {
+                    if (sessions.remove(id) != null) session.player.destroy();
+                }
+                case NodeProtocol.SEEK ->
+                {
+                    long position = message.getLong();
+                    int generation = message.getInt();
+
+                    if (session != null) pump.execute(() -> seek(session, position, generation)); // between two pump runs
+                }
+                case NodeProtocol.VOLUME ->
+                {
+                    if (session != null) session.player.setVolume(message.getInt());
+                }
+                case NodeProtocol.CREDIT ->
+                {
+                    if (session != null) session.credits.addAndGet(message.getInt());
+                }
+                default -> LOGGER.warn("Received unknown opcode " + opcode);
+            }
+        }
+        catch (Exception exception)
+        {
+            LOGGER.warn("Failed to handle opcode " + opcode + " for session " + id, exception);
+            fail(id);
+        }
+    }
+
+    private void play(long id, ByteBuffer message) throws IOException
+    {
+        long position = message.getLong();
+        int volume = message.getInt();
+        byte[] encoded = new byte[message.remaining()];
+        message.get(encoded);
+
+        DecodedTrackHolder holder = playerManager.decodeTrack(new MessageInput(new ByteArrayInputStream(encoded)));
+
+        if (holder == null || holder.decodedTrack == null)
+        {
+            end(id, true);
+            return;
+        }
+
+        AudioTrack track = holder.decodedTrack;
+        AudioPlayer player = playerManager.createPlayer();
+        Session session = new Session(player);
+
+        if (position > 0 && track.isSeekable())
+        {
+            track.setPosition(position);
+        }
+
+        player.setVolume(volume);
+        player.addListener(new AudioEventAdapter()
+        {
+            @Override
+            public void onTrackEnd(AudioPlayer player, AudioTrack track, AudioTrackEndReason endReason)
+            {
+                if (sessions.remove(id, session))
+                {
+                    player.destroy();
+                    end(id, endReason == AudioTrackEndReason.LOAD_FAILED);
+                }
+            }
+        });
+
+        sessions.put(id, session);
+        player.startTrack(track, false);
+    }
+
+    /**
+     * Radio has dropped everything it buffered, so the session starts over with a full window and tags its frames
+     * with the new generation, even if the track can't seek. Runs on the pump thread, so no frame is counted against
+     * the old window after the reset.
+     */
+    private void seek(Session session, long position, int generation)
+    {
+        session.generation = generation;
+        session.credits.set(NodeProtocol.WINDOW);
+
+        AudioTrack track = session.player.getPlayingTrack();
+        if (track != null && track.isSeekable()) track.setPosition(position);
+    }
+
+    private void pump()
+    {
+        for (Map.Entry<Long, Session> entry : sessions.entrySet())
+        {
+            Session session = entry.getValue();
+
+            try
+            {
+                while (session.credits.get() > 0 && session.player.provide(session.frame))
+                {
+                    ByteBuffer buffer = session.buffer;
+                    ((Buffer) buffer).flip();
+
+                    ByteBuffer message = NodeProtocol.message(NodeProtocol.FRAME, entry.getKey(), Integer.BYTES + buffer.remaining());
+                    message.putInt(session.generation);
+                    message.put(buffer);
+                    ((Buffer) buffer).clear();
+
+                    NodeProtocol.write(output, message);
+                    session.credits.decrementAndGet();
+                }
+            }
+            catch (IOException exception)
+            {
+                close();
+                return;
+            }
+            catch (Exception exception)
+            {
+                LOGGER.error("Failed to pump frames for session " + entry.getKey(), exception);
+                fail(entry.getKey());
+            }
+        }
+    }
+
+    private void sendStats()
+    {
+        double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        ByteBuffer message = NodeProtocol.message(NodeProtocol.STATS, 0, Integer.BYTES + Double.BYTES);
+        message.putInt(sessions.size());
+        message.putDouble(load < 0 ? 0 : Math.min(1, load / processors)); // unavailable on some platforms
+
+        try
+        {
+            NodeProtocol.write(output, message);
+        }
+        catch (IOException exception)
+        {
+            close();
+        }
+    }
+
+    private void fail(long id)
+    {
+        Session session = sessions.remove(id);
+
+        if (session != null)
+        {
+            session.player.destroy();
+        }
+        end(id, true);
+    }
+
+    private void end(long id, boolean failed)
+    {
+        ByteBuffer message = NodeProtocol.message(NodeProtocol.END, id, 1);
+        message.put((byte) (failed ? 1 : 0));
+
+        try
+        {
+            NodeProtocol.write(output, message);
+        }
+        catch (IOException exception)
+        {
+            close();
+        }
+    }
+
+    private void close()
+    {
+        pump.shutdownNow();
+
+        try
+        {
+            socket.close();
+        }
+        catch (IOException ignored)
+        {}
+
+        List<Session> closed = new ArrayList<>(sessions.values());
+        sessions.clear(); // so the players don't report their end on the closed socket
+        closed.forEach(session -> session.player.destroy());
+    }
+
+    private static class Session
+    {
+        private final AudioPlayer player;
+        private final ByteBuffer buffer;
+        private final MutableAudioFrame frame;
+        private final AtomicInteger credits;
+        private volatile int generation;
+
+        private Session(AudioPlayer player)
+        {
+            this.player = player;
+            this.buffer = ByteBuffer.allocate(4096);
+            this.frame = new MutableAudioFrame();
+            this.frame.setBuffer(buffer);
+            this.credits = new AtomicInteger();
+        }
+    }
+}
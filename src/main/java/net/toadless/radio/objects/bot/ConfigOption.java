@@ -9,6 +9,14 @@ public enum ConfigOption
     TOKEN("token"),
     PRIVILEGEDUSERS("privileged-users"),
 
+    SPILLTHRESHOLD("music.spill-threshold"),
+    PREFETCHSECONDS("music.prefetch-seconds"),
+    BROADCAST("music.broadcast"),
+    NODES("music.nodes"),
+    NODESECRET("music.node-secret"),
+    LOADCONCURRENCY("music.load-concurrency"),
+    LYRICSPREFETCH("music.lyrics-prefetch"),
+
     SPOTIFYID("spotify.id"),
     SPOTIFYSECRET("spotify.secret"),
 
@@ -61,6 +61,11 @@ public class Configuration
         return configuration.getInt(configOption.getKey());
     }
 
+    public boolean getBoolean(ConfigOption configOption)
+    {
+        return configuration.getBoolean(configOption.getKey());
+    }
+
     public List<String> getList(ConfigOption configOption)
     {
         return configuration.getStringList(configOption.getKey());
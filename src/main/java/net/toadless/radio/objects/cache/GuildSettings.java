@@ -0,0 +1,52 @@
+package net.toadless.radio.objects.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The settings of one guild as stored in the guilds table. Changes produce a new instance.
+ */
+public final class GuildSettings
+{
+    public static final long NO_DJ_ROLE = -1L;
+
+    private final long guildId;
+    private final String prefix;
+    private final long djRole;
+
+    public GuildSettings(long guildId, @NotNull String prefix, long djRole)
+    {
+        this.guildId = guildId;
+        this.prefix = prefix;
+        this.djRole = djRole;
+    }
+
+    public long getGuildId()
+    {
+        return guildId;
+    }
+
+    public @NotNull String getPrefix()
+    {
+        return prefix;
+    }
+
+    public long getDjRole()
+    {
+        return djRole;
+    }
+
+    public boolean hasDjRole()
+    {
+        return djRole != NO_DJ_ROLE;
+    }
+
+    public @NotNull GuildSettings withPrefix(@NotNull String prefix)
+    {
+        return new GuildSettings(guildId, prefix, djRole);
+    }
+
+    public @NotNull GuildSettings withDjRole(long djRole)
+    {
+        return new GuildSettings(guildId, prefix, djRole);
+    }
+}
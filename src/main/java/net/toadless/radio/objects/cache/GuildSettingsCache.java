@@ -1,188 +1,306 @@
 package net.toadless.radio.objects.cache;
 
+import java.io.File;
 import java.sql.Connection;
-import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import net.dv8tion.jda.api.JDA;
+import net.toadless.radio.Constants;
 import net.toadless.radio.Radio;
-import net.jodah.expiringmap.ExpirationPolicy;
-import net.jodah.expiringmap.ExpiringMap;
+import net.toadless.radio.jooq.tables.records.GuildsRecord;
 import net.toadless.radio.modules.DatabaseModule;
 import org.jetbrains.annotations.NotNull;
-import org.jooq.Field;
+import org.jooq.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static net.toadless.radio.jooq.Tables.GUILDS;
 
-public class GuildSettingsCache implements ICache<String, CachedGuildSetting>
+/**
+ * Holds the {@link GuildSettings} of every known guild in a {@link GuildSettingsTable}, each loaded with a single query.
+ * <p>
+ * Loads run on the database executor and concurrent misses for a guild share one query. Settings older than
+ * {@link #REFRESH_AFTER_MINUTES} are still returned while a fresh copy loads in the background, guilds without a row
+ * are refreshed sooner so a late registration shows up quickly. The table survives restarts, so a warm start doesn't
+ * have to load anything up front: restored settings are served straight away while each shard reloads them with one
+ * streamed query in the background.
+ * <p>
+ * Changes made by other instances arrive through {@link DatabaseModule}'s invalidation channel, the refresh interval
+ * is only a safety net for anything that slipped past it.
+ */
+public class GuildSettingsCache
 {
-    private static final Map<Long, GuildSettingsCache> GUILD_CACHES = new ConcurrentHashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(GuildSettingsCache.class);
+    private static final int WARM_FETCH_SIZE = 1000;
+    private static final long REFRESH_AFTER_MINUTES = 360;
+    private static final long MISSING_REFRESH_AFTER_MINUTES = 5;
 
-    private final Map<String, CachedGuildSetting> cachedValues;
-
-    private final Radio radio;
-    private final Long guildId;
+    private static final GuildSettingsTable SETTINGS = GuildSettingsTable.open(new File("cache", "guild-settings.bin"));
+    private static final Map<Long, CompletableFuture<GuildSettings>> LOADING = new HashMap<>();
+    private static final ExecutorService RELOADER = Executors.newSingleThreadExecutor(runnable ->
+    {
+        Thread thread = new Thread(runnable, "settings-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    public GuildSettingsCache(Long guildId, Radio radio)
+    private GuildSettingsCache()
     {
-        this.radio = radio;
-        this.guildId = guildId;
-        this.cachedValues = ExpiringMap.builder()
-                .maxSize(50)
-                .expirationPolicy(ExpirationPolicy.ACCESSED)
-                .expiration(1, TimeUnit.HOURS)
-                .build();
+        //Overrides the default, public, constructor
     }
 
-    public static @NotNull GuildSettingsCache getCache(long guildId, Radio radio)
+    /**
+     * Never blocks, on a miss the future completes once the settings are loaded.
+     */
+    public static @NotNull CompletableFuture<GuildSettings> getSettingsAsync(long guildId, @NotNull Radio radio)
     {
-        GuildSettingsCache cache = GUILD_CACHES.get(guildId);
-        if (GUILD_CACHES.get(guildId) == null)
+        GuildSettingsTable.Entry entry = SETTINGS.get(guildId);
+
+        if (entry == null)
         {
-            cache = new GuildSettingsCache(guildId, radio);
-            GUILD_CACHES.put(guildId, cache);
+            return load(guildId, radio);
         }
-        return cache;
-    }
 
-    public static void removeCache(long guildId)
-    {
-        GUILD_CACHES.remove(guildId);
-    }
+        long refreshAfter = entry.isMissing() ? MISSING_REFRESH_AFTER_MINUTES : REFRESH_AFTER_MINUTES;
 
-    @Override
-    public void put(CachedGuildSetting value)
-    {
-        cachedValues.put(value.getKey(), value);
+        if (System.currentTimeMillis() - entry.getLoadedAt() > TimeUnit.MINUTES.toMillis(refreshAfter))
+        {
+            load(guildId, radio); // serve the stale copy meanwhile
+        }
+        return CompletableFuture.completedFuture(entry.getSettings());
     }
 
-    @Override
-    public void put(Collection<CachedGuildSetting> values)
+    /**
+     * Runs the action with the guild's settings, right away if they are cached and on the executor once they have
+     * loaded otherwise, so it never runs on the database threads.
+     */
+    public static @NotNull CompletableFuture<Void> withSettings(long guildId, @NotNull Radio radio, @NotNull Executor executor, @NotNull Consumer<GuildSettings> action)
     {
-        values.forEach(this::put);
+        CompletableFuture<GuildSettings> settings = getSettingsAsync(guildId, radio);
+        return settings.isDone() ? settings.thenAccept(action) : settings.thenAcceptAsync(action, executor);
     }
 
-    @Override
-    public @NotNull CachedGuildSetting get(String key)
+    /**
+     * Never blocks. Commands only run once their guild is cached, so the defaults are only returned if it was
+     * dropped in between, while it loads again.
+     */
+    public static @NotNull GuildSettings getCachedSettings(long guildId, @NotNull Radio radio)
     {
-        return cachedValues.get(key);
+        CompletableFuture<GuildSettings> settings = getSettingsAsync(guildId, radio);
+        return settings.isDone() && !settings.isCompletedExceptionally() ? settings.join() : defaults(guildId);
     }
 
-    @Override
-    public void update(CachedGuildSetting oldValue, CachedGuildSetting newValue)
+    /**
+     * The DJ role check runs for most music commands, a cached guild answers it straight from the table.
+     */
+    public static long getDjRole(long guildId, @NotNull Radio radio)
     {
-        cachedValues.put(oldValue.getKey(), newValue);
+        long djRole = SETTINGS.getDjRole(guildId, Long.MIN_VALUE);
+        return djRole == Long.MIN_VALUE ? getCachedSettings(guildId, radio).getDjRole() : djRole;
     }
 
-    @Override
-    public void update(String oldValue, CachedGuildSetting newValue)
+    /**
+     * Runs for every guild message, a cached guild whose settings are still fresh answers without allocating anything.
+     *
+     * @return the length of the prefix if the message starts with it, {@link GuildSettingsTable#NO_MATCH} if it
+     * doesn't, or {@link GuildSettingsTable#UNRESOLVED} if the settings have to be loaded through
+     * {@link #getSettingsAsync(long, Radio)} first
+     */
+    public static int matchPrefix(long guildId, @NotNull CharSequence message)
     {
-        cachedValues.put(oldValue, newValue);
+        long now = System.currentTimeMillis();
+        return SETTINGS.matchPrefix(guildId, message,
+                now - TimeUnit.MINUTES.toMillis(REFRESH_AFTER_MINUTES),
+                now - TimeUnit.MINUTES.toMillis(MISSING_REFRESH_AFTER_MINUTES));
     }
 
-    @Override
-    public boolean isCached(String key)
+    /**
+     * The change is queued for the database right away, the cache is updated once the current settings are loaded.
+     */
+    public static @NotNull CompletableFuture<Void> setPrefix(long guildId, @NotNull String prefix, @NotNull Radio radio)
     {
-        return cachedValues.containsKey(key);
+        radio.getModules().get(DatabaseModule.class).getSettingsWriter().setPrefix(guildId, prefix);
+        return getSettingsAsync(guildId, radio).thenAccept(settings -> put(settings.withPrefix(prefix), false));
     }
 
-    @Override
-    public void remove(String key)
+    /**
+     * The change is queued for the database right away, the cache is updated once the current settings are loaded.
+     */
+    public static @NotNull CompletableFuture<Void> setDjRole(long guildId, long djRole, @NotNull Radio radio)
     {
-        cachedValues.remove(key);
+        radio.getModules().get(DatabaseModule.class).getSettingsWriter().setDjRole(guildId, djRole);
+        return getSettingsAsync(guildId, radio).thenAccept(settings -> put(settings.withDjRole(djRole), false));
     }
 
-    @Override
-    public void remove(CachedGuildSetting key)
+    /**
+     * Loads the settings of every guild on a shard in one streamed query, so the first messages after a restart
+     * don't each wait on the database. If the table was restored from its snapshot, the snapshot is served and the
+     * shard reloads in the background instead.
+     */
+    public static void warm(int shardId, int shardTotal, @NotNull Radio radio)
     {
-        remove(key.getKey());
+        if (SETTINGS.isRestored())
+        {
+            LOGGER.info("Using the snapshot of " + SETTINGS.size() + " guild settings for shard " + shardId + " while it reloads.");
+            RELOADER.execute(() -> loadShard(shardId, shardTotal, radio));
+            return;
+        }
+
+        loadShard(shardId, shardTotal, radio);
     }
 
-    @Override
-    public void remove(Collection<CachedGuildSetting> values)
+    /**
+     * Reloads every shard in the background, for when changes from elsewhere may have been missed. The cached settings
+     * are served meanwhile, so this never turns into a query per guild.
+     */
+    public static void reloadAll(@NotNull Radio radio)
     {
-        values.forEach(this::remove);
+        if (radio.getShardManager() == null) return;
+
+        for (JDA shard : radio.getShardManager().getShards())
+        {
+            JDA.ShardInfo shardInfo = shard.getShardInfo();
+            RELOADER.execute(() -> loadShard(shardInfo.getShardId(), shardInfo.getShardTotal(), radio));
+        }
     }
 
-    public long getDjRole()
+    private static void loadShard(int shardId, int shardTotal, Radio radio)
     {
-        return cacheGetLong("dj_role", GUILDS.DJ_ROLE);
+        DatabaseModule databaseModule = radio.getModules().get(DatabaseModule.class);
+        long start = System.currentTimeMillis();
+        int rows = 0;
+
+        try (Connection connection = databaseModule.getConnection())
+        {
+            connection.setAutoCommit(false); // postgres only streams with a fetch size inside a transaction
+            var context = databaseModule.getContext(connection);
+
+            try (Cursor<GuildsRecord> cursor = context.selectFrom(GUILDS)
+                    .where(GUILDS.GUILD_ID.shr(22).mod((long) shardTotal).eq((long) shardId)) // discord's shard formula
+                    .fetchSize(WARM_FETCH_SIZE)
+                    .fetchLazy())
+            {
+                for (GuildsRecord record : cursor)
+                {
+                    GuildSettingsTable.Entry current = SETTINGS.get(record.getGuildId());
+
+                    if ((current != null && current.getLoadedAt() > start) || databaseModule.getSettingsWriter().isPending(record.getGuildId()))
+                    {
+                        continue; // changed since the query started, or not written yet
+                    }
+
+                    put(toSettings(record), false);
+                    rows++;
+                }
+            }
+            connection.commit();
+        }
+        catch (Exception exception)
+        {
+            radio.getLogger().error("An SQL error occurred", exception);
+        }
+
+        LOGGER.info("Loaded the settings of " + rows + " guilds for shard " + shardId + " in " + (System.currentTimeMillis() - start) + "ms.");
     }
 
-    public void setDjRole(@NotNull long newJdRole)
+    public static void removeCache(long guildId)
     {
-        cachePut("dj_role", GUILDS.DJ_ROLE, newJdRole);
+        SETTINGS.remove(guildId);
     }
 
-    public @NotNull String getPrefix()
+    /**
+     * Reloads a guild that changed elsewhere, guilds that aren't cached are left alone.
+     */
+    public static void refresh(long guildId, @NotNull Radio radio)
     {
-        return cacheGetString("prefix", GUILDS.PREFIX);
+        if (SETTINGS.get(guildId) != null)
+        {
+            load(guildId, radio);
+        }
     }
 
-    public void setPrefix(@NotNull String newPrefix)
+    /**
+     * Writes the table to disk, the operating system does this eventually anyway.
+     */
+    public static void snapshot()
     {
-        cachePut("prefix", GUILDS.PREFIX, newPrefix);
+        SETTINGS.force();
     }
 
-    private <T> T getField(Field<T> field)
+    public static int getSize()
     {
-        try (Connection connection = radio.getModules().get(DatabaseModule.class).getConnection())
-        {
-            var context = radio.getModules().get(DatabaseModule.class).getContext(connection);
-            var query = context.select(field).from(GUILDS).where(GUILDS.GUILD_ID.eq(guildId));
-            T result = query.fetchOne(field);
-            query.close();
-            return result;
-        }
-        catch (Exception exception)
-        {
-            radio.getLogger().error("An SQL error occurred", exception);
-            return null;
-        }
+        return SETTINGS.size();
     }
 
-    private long cacheGetLong(String label, Field<Long> field)
+    private static CompletableFuture<GuildSettings> load(long guildId, Radio radio)
     {
-        if (cachedValues.get(label) == null)
+        CompletableFuture<GuildSettings> future;
+
+        synchronized (LOADING)
         {
-            cachedValues.put(label, new CachedGuildSetting(label, String.valueOf(getField(field))));
+            future = LOADING.get(guildId);
+
+            if (future != null)
+            {
+                return future;
+            }
+
+            future = new CompletableFuture<>();
+            LOADING.put(guildId, future);
         }
-        try
+
+        CompletableFuture<GuildSettings> loading = future;
+        DatabaseModule databaseModule = radio.getModules().get(DatabaseModule.class);
+        long started = System.currentTimeMillis();
+
+        databaseModule.getGuildSettingsDao().fetch(guildId).handle((fetched, throwable) ->
         {
-            return Long.parseLong(cachedValues.get(label).getValue());
-        }
-        catch (Exception exception)
+            if (throwable != null)
+            {
+                radio.getLogger().error("An SQL error occurred", throwable);
+                return defaults(guildId); // not cached, the next read tries again
+            }
+
+            GuildSettingsTable.Entry current = SETTINGS.get(guildId);
+            boolean unwritten = databaseModule.getSettingsWriter().isPending(guildId);
+
+            if (current != null && (current.getLoadedAt() > started || unwritten))
+            {
+                return current.getSettings(); // changed while this was loading, or not written yet
+            }
+
+            GuildSettings settings = fetched == null ? defaults(guildId) : fetched;
+            put(settings, fetched == null);
+            return settings;
+        }).whenComplete((settings, throwable) ->
         {
-            return -1;
-        }
+            synchronized (LOADING)
+            {
+                LOADING.remove(guildId);
+            }
+            loading.complete(settings);
+        });
+        return loading;
     }
 
-    private @NotNull String cacheGetString(String label, Field<String> field)
+    private static void put(GuildSettings settings, boolean missing)
     {
-        if (cachedValues.get(label) == null)
-        {
-            cachedValues.put(label, new CachedGuildSetting(label, String.valueOf(getField(field))));
-        }
-        return cachedValues.get(label).getValue();
+        SETTINGS.put(settings, missing, System.currentTimeMillis());
     }
 
-    private <T> void cachePut(String label, Field<T> field, T newValue)
+    private static @NotNull GuildSettings defaults(long guildId)
     {
-        update(label, new CachedGuildSetting(label, String.valueOf(newValue)));
-        setField(field, newValue);
+        return new GuildSettings(guildId, Constants.DEFAULT_BOT_PREFIX, GuildSettings.NO_DJ_ROLE);
     }
 
-
-    private <T> void setField(Field<T> field, T value)
+    private static @NotNull GuildSettings toSettings(GuildsRecord record)
     {
-        try (Connection connection = radio.getModules().get(DatabaseModule.class).getConnection())
-        {
-            var context = radio.getModules().get(DatabaseModule.class).getContext(connection);
-            context.update(GUILDS).set(field, value).where(GUILDS.GUILD_ID.eq(guildId)).execute();
-        }
-        catch (Exception exception)
-        {
-            radio.getLogger().error("An SQL error occurred", exception);
-        }
+        return new GuildSettings(record.getGuildId(), record.getPrefix(), record.getDjRole());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,646 @@
+package net.toadless.radio.objects.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.StampedLock;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An open addressing hash table from guild id to settings, stored in columns outside of the heap.
+ * <p>
+ * The table lives in a memory mapped file, so every change is part of the snapshot and a restart maps it straight
+ * back in. Layout: {@code [magic][version][capacity][size]} followed by the key, DJ role, loaded at, flag and prefix
+ * columns, each {@code capacity} entries long. Key 0 marks an empty slot, discord never hands out that id.
+ * <p>
+ * Reads are optimistic and only take the lock if a write got in between, writes are serialized.
+ * <p>
+ * The file is locked for as long as the process runs. Another instance sharing the same directory can't use it and
+ * keeps its table in plain off-heap memory instead.
+ */
+public final class GuildSettingsTable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(GuildSettingsTable.class);
+
+    private static final int MAGIC = 0x52475354; // RGST
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int PREFIX_WIDTH = 24; // [length][utf-8], five characters take at most 15 bytes
+    private static final int ENTRY_SIZE = Long.BYTES * 3 + 1 + PREFIX_WIDTH;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final float MAX_LOAD = 0.6f;
+
+    private static final byte FLAG_MISSING = 1;
+
+    public static final int NO_MATCH = -1;
+    public static final int UNRESOLVED = -2;
+
+    private File file; // null once the table lives in plain memory
+    private final FileLock fileLock; // held until the process exits
+    private final StampedLock lock;
+    private ByteBuffer buffer;
+    private int capacity;
+    private int size;
+    private final boolean restored;
+
+    private GuildSettingsTable(@Nullable File file, @Nullable FileLock fileLock, @NotNull ByteBuffer buffer, boolean restored)
+    {
+        this.file = file;
+        this.fileLock = fileLock;
+        this.lock = new StampedLock();
+        this.buffer = buffer;
+        this.capacity = buffer.getInt(8);
+        this.size = buffer.getInt(12);
+        this.restored = restored;
+    }
+
+    /**
+     * Maps the snapshot if there is a valid one, falls back to plain off-heap memory if the file can't be used or
+     * another process holds it.
+     */
+    public static @NotNull GuildSettingsTable open(@NotNull File file)
+    {
+        try
+        {
+            File parent = file.getAbsoluteFile().getParentFile();
+
+            if (!parent.isDirectory() && !parent.mkdirs())
+            {
+                throw new IOException("Couldn't create " + parent);
+            }
+
+            FileLock fileLock = lock(file);
+
+            if (fileLock == null)
+            {
+                LOGGER.warn(file + " is in use by another process, guild settings won't survive a restart.");
+                return inMemory();
+            }
+
+            if (file.isFile())
+            {
+                MappedByteBuffer buffer = map(file, file.length());
+
+                if (isValid(buffer, file.length()))
+                {
+                    LOGGER.info("Restored " + buffer.getInt(12) + " guild settings from " + file + ".");
+                    GuildSettingsTable table = new GuildSettingsTable(file, fileLock, buffer, buffer.getInt(12) > 0);
+                    table.touchAll(System.currentTimeMillis()); // served as is until the shards reload them
+                    return table;
+                }
+                LOGGER.warn("Discarding invalid guild settings snapshot " + file + ".");
+            }
+            return new GuildSettingsTable(file, fileLock, create(file, INITIAL_CAPACITY), false);
+        }
+        catch (IOException exception)
+        {
+            LOGGER.warn("Couldn't map " + file + ", guild settings won't survive a restart.", exception);
+            return inMemory();
+        }
+    }
+
+    private static GuildSettingsTable inMemory()
+    {
+        return new GuildSettingsTable(null, null, allocate(INITIAL_CAPACITY), false);
+    }
+
+    /**
+     * Locks a file next to the snapshot rather than the snapshot itself, which is replaced whenever the table grows.
+     *
+     * @return the lock, or null if another process holds it
+     */
+    private static @Nullable FileLock lock(File file) throws IOException
+    {
+        FileChannel channel = FileChannel.open(new File(file.getPath() + ".lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+        try
+        {
+            FileLock fileLock = channel.tryLock();
+
+            if (fileLock == null)
+            {
+                channel.close();
+            }
+            return fileLock;
+        }
+        catch (OverlappingFileLockException exception)
+        {
+            channel.close(); // already held within this process
+            return null;
+        }
+    }
+
+    public @Nullable Entry get(long guildId)
+    {
+        long stamp = lock.tryOptimisticRead();
+        Entry entry = read(buffer, guildId);
+
+        if (!lock.validate(stamp))
+        {
+            stamp = lock.readLock();
+
+            try
+            {
+                entry = read(buffer, guildId);
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Reads only the DJ role, without allocating anything.
+     *
+     * @return the role, or {@code absent} if the guild isn't in the table
+     */
+    public long getDjRole(long guildId, long absent)
+    {
+        long stamp = lock.tryOptimisticRead();
+        long djRole = readDjRole(buffer, guildId, absent);
+
+        if (!lock.validate(stamp))
+        {
+            stamp = lock.readLock();
+
+            try
+            {
+                djRole = readDjRole(buffer, guildId, absent);
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+        return djRole;
+    }
+
+    /**
+     * Matches the start of a message against a guild's prefix without allocating anything.
+     *
+     * @param loadedAfter entries loaded at or before this are treated as absent
+     * @param missingLoadedAfter the same, for guilds without a row
+     * @return the length of the prefix if the message starts with it, {@link #NO_MATCH} if it doesn't, or
+     * {@link #UNRESOLVED} if the guild is absent or its prefix isn't plain ASCII
+     */
+    public int matchPrefix(long guildId, @NotNull CharSequence message, long loadedAfter, long missingLoadedAfter)
+    {
+        long stamp = lock.tryOptimisticRead();
+        int match = matchPrefix(buffer, guildId, message, loadedAfter, missingLoadedAfter);
+
+        if (!lock.validate(stamp))
+        {
+            stamp = lock.readLock();
+
+            try
+            {
+                match = matchPrefix(buffer, guildId, message, loadedAfter, missingLoadedAfter);
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+        return match;
+    }
+
+    public void put(@NotNull GuildSettings settings, boolean missing, long loadedAt)
+    {
+        long stamp = lock.writeLock();
+
+        try
+        {
+            boolean adding = keyAt(buffer, find(buffer, capacity, settings.getGuildId())) == 0;
+
+            // lookups only terminate at an empty slot, so one always has to remain
+            if (adding && size + 1 > capacity * MAX_LOAD && !resize(capacity * 2) && size + 2 > capacity)
+            {
+                LOGGER.warn("The guild settings table is full, not caching guild " + settings.getGuildId() + ".");
+                return;
+            }
+
+            if (write(buffer, capacity, settings, missing, loadedAt))
+            {
+                buffer.putInt(12, ++size);
+            }
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long guildId)
+    {
+        long stamp = lock.writeLock();
+
+        try
+        {
+            int mask = capacity - 1;
+            int slot = find(buffer, capacity, guildId);
+
+            if (keyAt(buffer, slot) == 0)
+            {
+                return;
+            }
+
+            // shift the following entries back so lookups never stop early at the hole
+            int next = slot;
+
+            while (true)
+            {
+                next = (next + 1) & mask;
+                long key = keyAt(buffer, next);
+
+                if (key == 0)
+                {
+                    break;
+                }
+
+                int home = home(key, mask);
+                boolean movable = slot <= next ? (home <= slot || home > next) : (home <= slot && home > next);
+
+                if (movable)
+                {
+                    copy(buffer, capacity, next, slot);
+                    slot = next;
+                }
+            }
+
+            clear(buffer, capacity, slot);
+            buffer.putInt(12, --size);
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Marks every entry as loaded at the given time, so none of them refreshes on its own before then.
+     */
+    public void touchAll(long loadedAt)
+    {
+        long stamp = lock.writeLock();
+
+        try
+        {
+            for (int slot = 0; slot < capacity; slot++)
+            {
+                buffer.putLong(column(capacity, 2) + slot * Long.BYTES, loadedAt);
+            }
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Flushes the mapped pages to disk, the operating system does so on its own as well.
+     */
+    public void force()
+    {
+        long stamp = lock.readLock();
+
+        try
+        {
+            if (buffer instanceof MappedByteBuffer)
+            {
+                ((MappedByteBuffer) buffer).force();
+            }
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return whether the table started out with entries from a previous run
+     */
+    public boolean isRestored()
+    {
+        return restored;
+    }
+
+    /**
+     * Moves the table to plain memory if the snapshot can't grow.
+     *
+     * @return whether the table grew
+     */
+    private boolean resize(int newCapacity)
+    {
+        ByteBuffer resized;
+        File temporary = file == null ? null : new File(file.getPath() + ".tmp");
+
+        try
+        {
+            resized = temporary == null ? allocate(newCapacity) : create(temporary, newCapacity);
+        }
+        catch (IOException exception)
+        {
+            LOGGER.error("Couldn't grow the guild settings snapshot to " + newCapacity + " entries, continuing in memory.", exception);
+
+            try
+            {
+                temporary = null;
+                file = null;
+                resized = allocate(newCapacity);
+            }
+            catch (OutOfMemoryError error)
+            {
+                LOGGER.error("Couldn't grow the guild settings table to " + newCapacity + " entries.", error);
+                return false;
+            }
+        }
+        catch (OutOfMemoryError error)
+        {
+            LOGGER.error("Couldn't grow the guild settings table to " + newCapacity + " entries.", error);
+            return false;
+        }
+
+        for (int slot = 0; slot < capacity; slot++)
+        {
+            if (keyAt(buffer, slot) != 0)
+            {
+                Entry entry = readSlot(buffer, capacity, slot);
+                write(resized, newCapacity, entry.getSettings(), entry.isMissing(), entry.getLoadedAt());
+            }
+        }
+        resized.putInt(12, size);
+
+        if (temporary != null)
+        {
+            try
+            {
+                ((MappedByteBuffer) resized).force();
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (IOException exception)
+            {
+                LOGGER.error("Couldn't replace the guild settings snapshot.", exception);
+            }
+        }
+
+        buffer = resized;
+        capacity = newCapacity;
+        return true;
+    }
+
+    private static ByteBuffer allocate(int capacity)
+    {
+        return initialize(ByteBuffer.allocateDirect(HEADER_SIZE + ENTRY_SIZE * capacity), capacity);
+    }
+
+    // the capacity comes from the buffer's own header, an optimistic read may see a buffer that was just replaced
+    private static @Nullable Entry read(ByteBuffer buffer, long guildId)
+    {
+        int capacity = buffer.getInt(8);
+        int slot = find(buffer, capacity, guildId);
+        return keyAt(buffer, slot) == 0 ? null : readSlot(buffer, capacity, slot);
+    }
+
+    private static long readDjRole(ByteBuffer buffer, long guildId, long absent)
+    {
+        int capacity = buffer.getInt(8);
+        int slot = find(buffer, capacity, guildId);
+        return keyAt(buffer, slot) == 0 ? absent : buffer.getLong(column(capacity, 1) + slot * Long.BYTES);
+    }
+
+    private static int matchPrefix(ByteBuffer buffer, long guildId, CharSequence message, long loadedAfter, long missingLoadedAfter)
+    {
+        int capacity = buffer.getInt(8);
+        int slot = find(buffer, capacity, guildId);
+
+        if (keyAt(buffer, slot) == 0)
+        {
+            return UNRESOLVED;
+        }
+
+        boolean missing = buffer.get(column(capacity, 3) + slot) == FLAG_MISSING;
+
+        if (buffer.getLong(column(capacity, 2) + slot * Long.BYTES) <= (missing ? missingLoadedAfter : loadedAfter))
+        {
+            return UNRESOLVED;
+        }
+
+        int prefixOffset = prefixOffset(capacity, slot);
+        int length = Math.min(buffer.get(prefixOffset) & 0xFF, PREFIX_WIDTH - 1);
+
+        for (int i = 0; i < length; i++)
+        {
+            byte value = buffer.get(prefixOffset + 1 + i);
+
+            if (value < 0)
+            {
+                return UNRESOLVED; // multi-byte utf-8, left to a comparison with the decoded prefix
+            }
+
+            if (i >= message.length() || message.charAt(i) != value)
+            {
+                return NO_MATCH;
+            }
+        }
+        return length;
+    }
+
+    private static Entry readSlot(ByteBuffer buffer, int capacity, int slot)
+    {
+        int prefixOffset = prefixOffset(capacity, slot);
+        byte[] prefix = new byte[Math.min(buffer.get(prefixOffset) & 0xFF, PREFIX_WIDTH - 1)];
+        buffer.get(prefixOffset + 1, prefix);
+
+        GuildSettings settings = new GuildSettings(
+                keyAt(buffer, slot),
+                new String(prefix, StandardCharsets.UTF_8),
+                buffer.getLong(column(capacity, 1) + slot * Long.BYTES));
+
+        return new Entry(settings,
+                buffer.getLong(column(capacity, 2) + slot * Long.BYTES),
+                buffer.get(column(capacity, 3) + slot) == FLAG_MISSING);
+    }
+
+    /**
+     * @return whether the guild wasn't in the table yet
+     */
+    private static boolean write(ByteBuffer buffer, int capacity, GuildSettings settings, boolean missing, long loadedAt)
+    {
+        byte[] prefix = settings.getPrefix().getBytes(StandardCharsets.UTF_8);
+
+        if (prefix.length >= PREFIX_WIDTH)
+        {
+            throw new IllegalArgumentException("Prefix too long: " + settings.getPrefix());
+        }
+
+        int slot = find(buffer, capacity, settings.getGuildId());
+        boolean added = keyAt(buffer, slot) == 0;
+        int prefixOffset = prefixOffset(capacity, slot);
+
+        buffer.putLong(column(capacity, 1) + slot * Long.BYTES, settings.getDjRole());
+        buffer.putLong(column(capacity, 2) + slot * Long.BYTES, loadedAt);
+        buffer.put(column(capacity, 3) + slot, missing ? FLAG_MISSING : 0);
+        buffer.put(prefixOffset, (byte) prefix.length);
+        buffer.put(prefixOffset + 1, prefix);
+        buffer.putLong(HEADER_SIZE + slot * Long.BYTES, settings.getGuildId()); // last, so readers never see a half written key
+
+        return added;
+    }
+
+    private static void copy(ByteBuffer buffer, int capacity, int from, int to)
+    {
+        for (int column = 0; column < 3; column++)
+        {
+            buffer.putLong(column(capacity, column) + to * Long.BYTES, buffer.getLong(column(capacity, column) + from * Long.BYTES));
+        }
+
+        buffer.put(column(capacity, 3) + to, buffer.get(column(capacity, 3) + from));
+
+        for (int i = 0; i < PREFIX_WIDTH; i++)
+        {
+            buffer.put(prefixOffset(capacity, to) + i, buffer.get(prefixOffset(capacity, from) + i));
+        }
+    }
+
+    private static void clear(ByteBuffer buffer, int capacity, int slot)
+    {
+        buffer.putLong(HEADER_SIZE + slot * Long.BYTES, 0L);
+        buffer.put(column(capacity, 3) + slot, (byte) 0);
+    }
+
+    /**
+     * @return the slot holding the guild, or the empty slot it would go into
+     */
+    private static int find(ByteBuffer buffer, int capacity, long guildId)
+    {
+        int mask = capacity - 1;
+        int slot = home(guildId, mask);
+
+        while (true)
+        {
+            long key = keyAt(buffer, slot);
+
+            if (key == guildId || key == 0)
+            {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static int home(long guildId, int mask)
+    {
+        // the low bits of a snowflake barely change between guilds created at the same time, so mix them first
+        long hash = guildId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static long keyAt(ByteBuffer buffer, int slot)
+    {
+        return buffer.getLong(HEADER_SIZE + slot * Long.BYTES);
+    }
+
+    /**
+     * Columns 0 to 2 are the key, DJ role and loaded at longs, 3 are the flags and 4 the prefixes.
+     */
+    private static int column(int capacity, int column)
+    {
+        return HEADER_SIZE + capacity * (column <= 3 ? column * Long.BYTES : 3 * Long.BYTES + 1);
+    }
+
+    private static int prefixOffset(int capacity, int slot)
+    {
+        return column(capacity, 4) + slot * PREFIX_WIDTH;
+    }
+
+    private static boolean isValid(ByteBuffer buffer, long length)
+    {
+        if (length < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+        {
+            return false;
+        }
+
+        int capacity = buffer.getInt(8);
+        return Integer.bitCount(capacity) == 1 && length == HEADER_SIZE + (long) ENTRY_SIZE * capacity;
+    }
+
+    private static MappedByteBuffer create(File file, int capacity) throws IOException
+    {
+        Files.deleteIfExists(file.toPath());
+        MappedByteBuffer buffer = map(file, HEADER_SIZE + (long) ENTRY_SIZE * capacity);
+        initialize(buffer, capacity);
+        return buffer;
+    }
+
+    private static MappedByteBuffer map(File file, long length) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length); // stays valid after the channel is closed
+        }
+    }
+
+    private static ByteBuffer initialize(ByteBuffer buffer, int capacity)
+    {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, capacity);
+        buffer.putInt(12, 0);
+        return buffer;
+    }
+
+    public static final class Entry
+    {
+        private final GuildSettings settings;
+        private final long loadedAt;
+        private final boolean missing;
+
+        private Entry(GuildSettings settings, long loadedAt, boolean missing)
+        {
+            this.settings = settings;
+            this.loadedAt = loadedAt;
+            this.missing = missing;
+        }
+
+        public @NotNull GuildSettings getSettings()
+        {
+            return settings;
+        }
+
+        public long getLoadedAt()
+        {
+            return loadedAt;
+        }
+
+        /**
+         * @return whether the guild has no row and these are the defaults
+         */
+        public boolean isMissing()
+        {
+            return missing;
+        }
+    }
+}
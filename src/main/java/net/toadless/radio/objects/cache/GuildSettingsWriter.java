@@ -0,0 +1,149 @@
+package net.toadless.radio.objects.cache;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import net.toadless.radio.Radio;
+import net.toadless.radio.modules.DatabaseModule;
+import net.toadless.radio.objects.bot.ConfigOption;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.Field;
+import org.jooq.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static net.toadless.radio.jooq.Tables.GUILDS;
+
+/**
+ * Writes guild settings changes behind the cache, which already holds the new values.
+ * <p>
+ * Changes to the same guild are merged until the next {@link #flush()}, which sends them all in one batch. A change
+ * only leaves the queue once it is committed, so a reload racing the flush can tell it isn't in the database yet.
+ */
+public class GuildSettingsWriter
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(GuildSettingsWriter.class);
+
+    private final Radio radio;
+    private final String defaultPrefix;
+    private final Map<Long, Change> pending;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public GuildSettingsWriter(Radio radio)
+    {
+        this.radio = radio;
+        this.defaultPrefix = radio.getConfiguration().getString(ConfigOption.PREFIX);
+        this.pending = new ConcurrentHashMap<>();
+    }
+
+    public void setPrefix(long guildId, @NotNull String prefix)
+    {
+        pending.merge(guildId, new Change(prefix, false, 0), Change::merge);
+    }
+
+    public void setDjRole(long guildId, long djRole)
+    {
+        pending.merge(guildId, new Change(null, true, djRole), Change::merge);
+    }
+
+    public boolean isPending(long guildId)
+    {
+        return pending.containsKey(guildId);
+    }
+
+    public synchronized void flush()
+    {
+        if (pending.isEmpty()) return;
+
+        DatabaseModule databaseModule = radio.getModules().get(DatabaseModule.class);
+        Map<Long, Change> batch = new HashMap<>(pending);
+
+        try (Connection connection = databaseModule.getConnection())
+        {
+            var context = databaseModule.getContext(connection);
+            List<Query> queries = new ArrayList<>(batch.size());
+
+            batch.forEach((guildId, change) ->
+            {
+                Map<Field<?>, Object> fields = new HashMap<>();
+
+                if (change.prefix != null)
+                {
+                    fields.put(GUILDS.PREFIX, change.prefix);
+                }
+
+                if (change.hasDjRole)
+                {
+                    fields.put(GUILDS.DJ_ROLE, change.djRole);
+                }
+
+                // guilds joined since the last registry flush don't have a row yet
+                Map<Field<?>, Object> row = new HashMap<>(fields);
+                row.put(GUILDS.GUILD_ID, guildId);
+                row.putIfAbsent(GUILDS.PREFIX, defaultPrefix);
+
+                queries.add(context.insertInto(GUILDS).set(row).onConflict(GUILDS.GUILD_ID).doUpdate().set(fields));
+            });
+
+            context.batch(queries).execute();
+        }
+        catch (Exception exception)
+        {
+            failed.addAndGet(batch.size());
+            radio.getLogger().error("An SQL error occurred", exception);
+            return; // stays queued for the next flush
+        }
+
+        batch.forEach((guildId, change) ->
+        {
+            pending.remove(guildId, change); // newer changes made during the flush stay queued
+            databaseModule.publishSettingsChange(guildId);
+        });
+
+        written.addAndGet(batch.size());
+        LOGGER.debug("Wrote settings changes for " + batch.size() + " guilds.");
+    }
+
+    public int getPending()
+    {
+        return pending.size();
+    }
+
+    public long getWritten()
+    {
+        return written.get();
+    }
+
+    public long getFailed()
+    {
+        return failed.get();
+    }
+
+    private static final class Change
+    {
+        private final String prefix;
+        private final boolean hasDjRole;
+        private final long djRole;
+
+        private Change(String prefix, boolean hasDjRole, long djRole)
+        {
+            this.prefix = prefix;
+            this.hasDjRole = hasDjRole;
+            this.djRole = djRole;
+        }
+
+        private Change merge(Change newer)
+        {
+            return new Change(
+                    newer.prefix != null ? newer.prefix : prefix,
+                    newer.hasDjRole || hasDjRole,
+                    newer.hasDjRole ? newer.djRole : djRole);
+        }
+    }
+}
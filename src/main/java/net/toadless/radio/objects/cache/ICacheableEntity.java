@@ -1,10 +0,0 @@
-package net.toadless.radio.objects.cache;
-
-import org.jetbrains.annotations.NotNull;
-
-public interface ICacheableEntity<K, V>
-{
-    @NotNull K getKey();
-
-    @NotNull V getData();
-}
\ No newline at end of file
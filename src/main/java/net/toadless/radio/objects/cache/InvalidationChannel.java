@@ -0,0 +1,257 @@
+package net.toadless.radio.objects.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import net.toadless.radio.Radio;
+import net.toadless.radio.modules.DatabaseModule;
+import net.toadless.radio.objects.bot.ConfigOption;
+import net.toadless.radio.objects.bot.Configuration;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tells every other instance which guilds changed, over postgres LISTEN / NOTIFY.
+ * <p>
+ * Changed ids are collected and sent together by {@link #flush()}, split so no payload goes over postgres' 8000
+ * byte limit. Payloads look like {@code origin:id,id,...}, so an instance can skip its own changes. The listening side
+ * keeps its own connection outside the pool, since a LISTEN only lives as long as the session.
+ */
+public class InvalidationChannel
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(InvalidationChannel.class);
+
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final long RECONNECT_DELAY_SECONDS = 5;
+
+    private final String channel;
+    private final String origin;
+    private final Radio radio;
+    private final LongConsumer onChange;
+    private final Runnable onReconnect;
+    private final Set<Long> pending;
+    private final Thread listener;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+
+    /**
+     * @param onChange    called with every guild another instance changed
+     * @param onReconnect called after the listening connection was lost, any notification in between is gone
+     */
+    public InvalidationChannel(@NotNull String channel, @NotNull Radio radio, @NotNull LongConsumer onChange, @NotNull Runnable onReconnect)
+    {
+        this.channel = channel;
+        this.origin = UUID.randomUUID().toString().substring(0, 8);
+        this.radio = radio;
+        this.onChange = onChange;
+        this.onReconnect = onReconnect;
+        this.pending = new HashSet<>();
+        this.listener = new Thread(this::listen, channel + "-listener");
+        this.listener.setDaemon(true);
+    }
+
+    public void start()
+    {
+        running = true;
+        listener.start();
+    }
+
+    public void close()
+    {
+        running = false;
+        flush();
+        listener.interrupt();
+        closeConnection();
+    }
+
+    /**
+     * Queues the guild for the next {@link #flush()}.
+     */
+    public void publish(long guildId)
+    {
+        synchronized (pending)
+        {
+            pending.add(guildId);
+        }
+    }
+
+    /**
+     * Publishes every queued guild, they are queued again if the notification fails so the next flush retries them.
+     */
+    public void flush()
+    {
+        Set<Long> guildIds;
+        List<String> payloads;
+
+        synchronized (pending)
+        {
+            if (pending.isEmpty()) return;
+
+            guildIds = new HashSet<>(pending);
+            payloads = toPayloads(guildIds);
+            pending.clear();
+        }
+
+        DatabaseModule databaseModule = radio.getModules().get(DatabaseModule.class);
+
+        try (Connection connection = databaseModule.getConnection())
+        {
+            List<Field<?>> notifications = new ArrayList<>(payloads.size());
+
+            for (String payload : payloads)
+            {
+                notifications.add(DSL.function("pg_notify", String.class, DSL.val(channel), DSL.val(payload)));
+            }
+            databaseModule.getContext(connection).select(notifications).execute(); // one round trip for every chunk
+        }
+        catch (Exception exception)
+        {
+            radio.getLogger().error("An SQL error occurred", exception);
+
+            synchronized (pending)
+            {
+                pending.addAll(guildIds);
+            }
+        }
+    }
+
+    private List<String> toPayloads(Set<Long> guildIds)
+    {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(origin).append(':');
+
+        for (long guildId : guildIds)
+        {
+            String id = Long.toString(guildId);
+
+            if (payload.length() + id.length() + 1 > MAX_PAYLOAD_LENGTH)
+            {
+                payloads.add(payload.substring(0, payload.length() - 1));
+                payload.setLength(origin.length() + 1);
+            }
+            payload.append(id).append(',');
+        }
+
+        payloads.add(payload.substring(0, payload.length() - 1));
+        return payloads;
+    }
+
+    private void listen()
+    {
+        boolean reconnecting = false;
+
+        while (running)
+        {
+            try
+            {
+                connect();
+
+                if (reconnecting)
+                {
+                    onReconnect.run();
+                }
+                reconnecting = true;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                while (running)
+                {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+
+                    if (notifications != null)
+                    {
+                        for (PGNotification notification : notifications)
+                        {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            }
+            catch (SQLException exception)
+            {
+                if (!running) return;
+
+                LOGGER.warn("Lost the " + channel + " listener, reconnecting in " + RECONNECT_DELAY_SECONDS + " seconds.", exception);
+                closeConnection();
+
+                try
+                {
+                    TimeUnit.SECONDS.sleep(RECONNECT_DELAY_SECONDS);
+                }
+                catch (InterruptedException interruptedException)
+                {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void connect() throws SQLException
+    {
+        Configuration configuration = radio.getConfiguration();
+
+        connection = DriverManager.getConnection(
+                configuration.getString(ConfigOption.DBURL),
+                configuration.getString(ConfigOption.DBUSERNAME),
+                configuration.getString(ConfigOption.DBPASSWORD));
+
+        try (Statement statement = connection.createStatement())
+        {
+            statement.execute("LISTEN " + channel);
+        }
+        LOGGER.debug("Listening on " + channel + ".");
+    }
+
+    private void receive(String payload)
+    {
+        int separator = payload.indexOf(':');
+
+        if (separator < 0 || payload.substring(0, separator).equals(origin))
+        {
+            return; // our own change, already applied locally
+        }
+
+        for (String id : payload.substring(separator + 1).split(","))
+        {
+            try
+            {
+                onChange.accept(Long.parseLong(id));
+            }
+            catch (NumberFormatException exception)
+            {
+                LOGGER.warn("Ignoring malformed id '" + id + "' on " + channel + ".");
+            }
+        }
+    }
+
+    private void closeConnection()
+    {
+        Connection current = connection;
+
+        if (current == null) return;
+
+        try
+        {
+            current.close();
+        }
+        catch (SQLException exception)
+        {
+            LOGGER.debug("Failed to close the " + channel + " listener.", exception);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package net.toadless.radio.objects.cache;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import net.jodah.expiringmap.ExpirationPolicy;
+import net.jodah.expiringmap.ExpiringMap;
+import net.toadless.radio.Radio;
+import net.toadless.radio.modules.DatabaseModule;
+import net.toadless.radio.objects.music.TrackCodec;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers which YouTube track a Spotify track id was resolved to, in memory and in the database.
+ * <p>
+ * Entries older than {@link #REVALIDATE_AFTER} are still served, but should be searched again in the background
+ * and {@link #put} once the new result is in, uploads do get taken down.
+ */
+public class SpotifyTrackCache
+{
+    public static final long REVALIDATE_AFTER = TimeUnit.DAYS.toMillis(7);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotifyTrackCache.class);
+
+    private final Radio radio;
+    private final TrackCodec codec;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong databaseHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public SpotifyTrackCache(Radio radio, TrackCodec codec)
+    {
+        this.radio = radio;
+        this.codec = codec;
+        this.entries = ExpiringMap.builder()
+                .maxSize(20_000)
+                .expirationPolicy(ExpirationPolicy.ACCESSED)
+                .expiration(1, TimeUnit.HOURS)
+                .build();
+    }
+
+    /**
+     * Checks memory first and the database after, the database lookup runs on the database executor.
+     *
+     * @return the cached entry, completed with null if the id was never resolved
+     */
+    public @NotNull CompletableFuture<Entry> get(String spotifyId)
+    {
+        Entry entry = entries.get(spotifyId);
+
+        if (entry != null)
+        {
+            memoryHits.incrementAndGet();
+            return CompletableFuture.completedFuture(entry);
+        }
+
+        return radio.getModules().get(DatabaseModule.class).getSpotifyTrackDao().fetch(spotifyId).handle((record, throwable) ->
+        {
+            if (throwable != null)
+            {
+                radio.getLogger().error("An SQL error occurred", throwable);
+            }
+
+            if (record == null)
+            {
+                misses.incrementAndGet();
+                return null;
+            }
+
+            Entry loaded = new Entry(record.getTrack(), record.getResolvedAt());
+            entries.put(spotifyId, loaded);
+            databaseHits.incrementAndGet();
+            return loaded;
+        });
+    }
+
+    public @Nullable AudioTrack decode(@NotNull Entry entry)
+    {
+        try
+        {
+            return codec.decode(entry.getEncoded());
+        }
+        catch (IOException exception)
+        {
+            LOGGER.warn("Failed to decode a cached track", exception);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a fresh resolution, the database write happens in the background.
+     */
+    public void put(String spotifyId, @NotNull AudioTrack track)
+    {
+        Entry entry;
+
+        try
+        {
+            entry = new Entry(codec.encode(track), System.currentTimeMillis());
+        }
+        catch (IOException exception)
+        {
+            LOGGER.warn("Failed to encode " + track.getIdentifier() + " for the cache", exception);
+            return;
+        }
+
+        entries.put(spotifyId, entry);
+        radio.getModules().get(DatabaseModule.class).getSpotifyTrackDao()
+                .store(spotifyId, entry.getEncoded(), entry.getResolvedAt())
+                .exceptionally(throwable ->
+                {
+                    radio.getLogger().error("An SQL error occurred", throwable);
+                    return null;
+                });
+    }
+
+    public long getMemoryHits()
+    {
+        return memoryHits.get();
+    }
+
+    public long getDatabaseHits()
+    {
+        return databaseHits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public int getSize()
+    {
+        return entries.size();
+    }
+
+    public static final class Entry
+    {
+        private final byte[] encoded;
+        private final long resolvedAt;
+
+        public Entry(byte[] encoded, long resolvedAt)
+        {
+            this.encoded = encoded;
+            this.resolvedAt = resolvedAt;
+        }
+
+        public byte[] getEncoded()
+        {
+            return encoded;
+        }
+
+        public long getResolvedAt()
+        {
+            return resolvedAt;
+        }
+
+        public boolean isStale()
+        {
+            return System.currentTimeMillis() - resolvedAt > REVALIDATE_AFTER;
+        }
+    }
+}
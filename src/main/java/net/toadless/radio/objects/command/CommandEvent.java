@@ -52,7 +52,7 @@ public class CommandEvent
         }
         else
         {
-            return GuildSettingsCache.getCache(getGuildIdLong(), radio).getPrefix();
+            return GuildSettingsCache.getCachedSettings(getGuildIdLong(), radio).getPrefix();
         }
     }
 
@@ -0,0 +1,105 @@
+package net.toadless.radio.objects.database;
+
+import java.sql.Connection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.toadless.radio.modules.DatabaseModule;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs database work on a fixed number of threads with a bounded queue, so callers never wait on a query themselves.
+ * <p>
+ * Work beyond the queue's capacity fails straight away instead of piling up behind a slow database.
+ */
+public class DatabaseExecutor
+{
+    private final DatabaseModule databaseModule;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong totalExecutionNanos = new AtomicLong();
+
+    public DatabaseExecutor(DatabaseModule databaseModule, int threads, int queueSize)
+    {
+        this.databaseModule = databaseModule;
+        this.executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(queueSize), runnable ->
+        {
+            Thread thread = new Thread(runnable, "database-executor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> @NotNull CompletableFuture<T> submit(@NotNull DatabaseTask<T> task)
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+
+        try
+        {
+            executor.execute(() ->
+            {
+                long startedAt = System.nanoTime();
+                totalWaitNanos.addAndGet(startedAt - queuedAt);
+
+                try (Connection connection = databaseModule.getConnection())
+                {
+                    future.complete(task.run(databaseModule.getContext(connection)));
+                }
+                catch (Exception exception)
+                {
+                    future.completeExceptionally(exception);
+                }
+                finally
+                {
+                    totalExecutionNanos.addAndGet(System.nanoTime() - startedAt);
+                    completed.incrementAndGet();
+                }
+            });
+        }
+        catch (RejectedExecutionException exception)
+        {
+            rejected.incrementAndGet();
+            future.completeExceptionally(exception);
+        }
+        return future;
+    }
+
+    public int getQueueDepth()
+    {
+        return executor.getQueue().size();
+    }
+
+    public int getActive()
+    {
+        return executor.getActiveCount();
+    }
+
+    public long getCompleted()
+    {
+        return completed.get();
+    }
+
+    public long getRejected()
+    {
+        return rejected.get();
+    }
+
+    public long getAverageWaitMillis()
+    {
+        long count = completed.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / count);
+    }
+
+    public long getAverageExecutionMillis()
+    {
+        long count = completed.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalExecutionNanos.get() / count);
+    }
+}
@@ -0,0 +1,12 @@
+package net.toadless.radio.objects.database;
+
+import org.jooq.DSLContext;
+
+/**
+ * A unit of database work, run on the {@link DatabaseExecutor} with a pooled connection of its own.
+ */
+@FunctionalInterface
+public interface DatabaseTask<T>
+{
+    T run(DSLContext context) throws Exception;
+}
@@ -0,0 +1,95 @@
+package net.toadless.radio.objects.database;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.jetbrains.annotations.NotNull;
+
+import static net.toadless.radio.jooq.Tables.GUILDS;
+
+/**
+ * Registers and removes guild rows, in statements of up to {@link #CHUNK_SIZE} guilds each.
+ */
+public class GuildDao
+{
+    private static final int CHUNK_SIZE = 1000; // well below postgres' limit of 32767 bind values
+
+    private final DatabaseExecutor executor;
+    private final String defaultPrefix;
+
+    public GuildDao(DatabaseExecutor executor, String defaultPrefix)
+    {
+        this.executor = executor;
+        this.defaultPrefix = defaultPrefix;
+    }
+
+    /**
+     * Guilds that already have a row are left as they are.
+     *
+     * @return the number of guilds that were added
+     */
+    public @NotNull CompletableFuture<Integer> register(@NotNull Collection<Long> guildIds)
+    {
+        if (guildIds.isEmpty()) return CompletableFuture.completedFuture(0);
+
+        List<List<Long>> chunks = chunk(guildIds);
+
+        return executor.submit(context ->
+        {
+            int rows = 0;
+
+            for (List<Long> chunk : chunks)
+            {
+                var insert = context.insertInto(GUILDS, GUILDS.GUILD_ID, GUILDS.PREFIX);
+
+                for (long guildId : chunk)
+                {
+                    insert = insert.values(guildId, defaultPrefix);
+                }
+                rows += insert.onConflictDoNothing().execute();
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * @return the number of guilds that were removed
+     */
+    public @NotNull CompletableFuture<Integer> remove(@NotNull Collection<Long> guildIds)
+    {
+        if (guildIds.isEmpty()) return CompletableFuture.completedFuture(0);
+
+        List<List<Long>> chunks = chunk(guildIds);
+
+        return executor.submit(context ->
+        {
+            int rows = 0;
+
+            for (List<Long> chunk : chunks)
+            {
+                rows += context.deleteFrom(GUILDS).where(GUILDS.GUILD_ID.in(chunk)).execute();
+            }
+            return rows;
+        });
+    }
+
+    private static List<List<Long>> chunk(Collection<Long> guildIds)
+    {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> current = new ArrayList<>(CHUNK_SIZE);
+
+        for (long guildId : guildIds)
+        {
+            if (current.size() == CHUNK_SIZE)
+            {
+                chunks.add(current);
+                current = new ArrayList<>(CHUNK_SIZE);
+            }
+            current.add(guildId);
+        }
+
+        chunks.add(current);
+        return chunks;
+    }
+}
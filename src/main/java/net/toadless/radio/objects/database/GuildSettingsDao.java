@@ -0,0 +1,32 @@
+package net.toadless.radio.objects.database;
+
+import java.util.concurrent.CompletableFuture;
+import net.toadless.radio.objects.cache.GuildSettings;
+import org.jetbrains.annotations.NotNull;
+
+import static net.toadless.radio.jooq.Tables.GUILDS;
+
+/**
+ * Reads guild settings, caching is left to {@link net.toadless.radio.objects.cache.GuildSettingsCache}.
+ */
+public class GuildSettingsDao
+{
+    private final DatabaseExecutor executor;
+
+    public GuildSettingsDao(DatabaseExecutor executor)
+    {
+        this.executor = executor;
+    }
+
+    /**
+     * @return the settings, completed with null if the guild has no row
+     */
+    public @NotNull CompletableFuture<GuildSettings> fetch(long guildId)
+    {
+        return executor.submit(context -> context.selectFrom(GUILDS)
+                .where(GUILDS.GUILD_ID.eq(guildId))
+                .fetchOptional()
+                .map(record -> new GuildSettings(record.getGuildId(), record.getPrefix(), record.getDjRole()))
+                .orElse(null));
+    }
+}
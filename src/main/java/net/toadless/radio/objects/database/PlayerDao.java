@@ -0,0 +1,31 @@
+package net.toadless.radio.objects.database;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import net.toadless.radio.jooq.tables.records.PlayersRecord;
+import org.jetbrains.annotations.NotNull;
+
+import static net.toadless.radio.jooq.Tables.PLAYERS;
+
+/**
+ * Reads player snapshots, writing them is left to {@link net.toadless.radio.modules.PersistenceModule}'s batches.
+ */
+public class PlayerDao
+{
+    private final DatabaseExecutor executor;
+
+    public PlayerDao(DatabaseExecutor executor)
+    {
+        this.executor = executor;
+    }
+
+    public @NotNull CompletableFuture<List<PlayersRecord>> fetch(@NotNull Collection<Long> guildIds)
+    {
+        if (guildIds.isEmpty()) return CompletableFuture.completedFuture(List.of());
+
+        return executor.submit(context -> context.selectFrom(PLAYERS)
+                .where(PLAYERS.GUILD_ID.in(guildIds))
+                .fetch());
+    }
+}
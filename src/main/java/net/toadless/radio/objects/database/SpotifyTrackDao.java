@@ -0,0 +1,40 @@
+package net.toadless.radio.objects.database;
+
+import java.util.concurrent.CompletableFuture;
+import net.toadless.radio.jooq.tables.records.SpotifyTracksRecord;
+import org.jetbrains.annotations.NotNull;
+
+import static net.toadless.radio.jooq.Tables.SPOTIFY_TRACKS;
+
+/**
+ * Reads and writes resolved Spotify tracks, caching is left to {@link net.toadless.radio.objects.cache.SpotifyTrackCache}.
+ */
+public class SpotifyTrackDao
+{
+    private final DatabaseExecutor executor;
+
+    public SpotifyTrackDao(DatabaseExecutor executor)
+    {
+        this.executor = executor;
+    }
+
+    /**
+     * @return the record, completed with null if the id was never resolved
+     */
+    public @NotNull CompletableFuture<SpotifyTracksRecord> fetch(@NotNull String spotifyId)
+    {
+        return executor.submit(context -> context.selectFrom(SPOTIFY_TRACKS)
+                .where(SPOTIFY_TRACKS.SPOTIFY_ID.eq(spotifyId))
+                .fetchOne());
+    }
+
+    public @NotNull CompletableFuture<Integer> store(@NotNull String spotifyId, byte[] track, long resolvedAt)
+    {
+        SpotifyTracksRecord record = new SpotifyTracksRecord()
+                .setSpotifyId(spotifyId)
+                .setTrack(track)
+                .setResolvedAt(resolvedAt);
+
+        return executor.submit(context -> context.insertInto(SPOTIFY_TRACKS).set(record).onDuplicateKeyUpdate().set(record).execute());
+    }
+}
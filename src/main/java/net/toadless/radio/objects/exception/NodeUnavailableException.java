@@ -0,0 +1,11 @@
+package net.toadless.radio.objects.exception;
+
+import java.io.IOException;
+
+public class NodeUnavailableException extends IOException
+{
+    public NodeUnavailableException(String message)
+    {
+        super(message);
+    }
+}
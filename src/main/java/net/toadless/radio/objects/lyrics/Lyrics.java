@@ -0,0 +1,39 @@
+package net.toadless.radio.objects.lyrics;
+
+import org.jetbrains.annotations.NotNull;
+
+public class Lyrics
+{
+    private final String title;
+    private final String artist;
+    private final String url;
+    private final String text;
+
+    public Lyrics(@NotNull String title, @NotNull String artist, @NotNull String url, @NotNull String text)
+    {
+        this.title = title;
+        this.artist = artist;
+        this.url = url;
+        this.text = text;
+    }
+
+    public @NotNull String getTitle()
+    {
+        return title;
+    }
+
+    public @NotNull String getArtist()
+    {
+        return artist;
+    }
+
+    public @NotNull String getUrl()
+    {
+        return url;
+    }
+
+    public @NotNull String getText()
+    {
+        return text;
+    }
+}
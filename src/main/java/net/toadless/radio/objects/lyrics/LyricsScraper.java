@@ -0,0 +1,16 @@
+package net.toadless.radio.objects.lyrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+public interface LyricsScraper
+{
+    /**
+     * Blocks until the lyrics are fetched, implementations should time out on their own.
+     *
+     * @return the best match, or null if there is none
+     */
+    @Nullable Lyrics fetch(@NotNull String song) throws IOException;
+}
@@ -0,0 +1,60 @@
+package net.toadless.radio.objects.lyrics;
+
+import net.toadless.radio.util.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.safety.Safelist;
+
+import java.io.IOException;
+
+public class MusixmatchScraper implements LyricsScraper
+{
+    private final String baseUrl;
+    private final int timeout;
+
+    public MusixmatchScraper(@NotNull String baseUrl, int timeout)
+    {
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+    }
+
+    public MusixmatchScraper(int timeout)
+    {
+        this("https://www.musixmatch.com", timeout);
+    }
+
+    @Override
+    public @Nullable Lyrics fetch(@NotNull String song) throws IOException
+    {
+        Document doc = Jsoup.connect(baseUrl + "/search/" + StringUtils.URLSanitize(song)).timeout(timeout).get(); //Enable safe search
+        Element link = doc.selectFirst("a.title[href*=/lyrics/]");
+
+        if (link == null || link.attr("abs:href").isEmpty())
+        {
+            return null;
+        }
+
+        String url = link.attr("abs:href");
+        doc = Jsoup.connect(url).timeout(timeout).get();
+
+        Element title = doc.selectFirst("h1");
+        Element artist = doc.selectFirst("h2 span a");
+        Element lyrics = doc.selectFirst("div.mxm-lyrics > span");
+
+        if (title == null || artist == null || lyrics == null)
+        {
+            return null;
+        }
+
+        String text = Jsoup.clean(lyrics.html(), Safelist.simpleText());
+
+        if (title.ownText().isEmpty() || artist.ownText().isEmpty() || text.isEmpty())
+        {
+            return null;
+        }
+        return new Lyrics(title.ownText(), artist.ownText(), url, text);
+    }
+}
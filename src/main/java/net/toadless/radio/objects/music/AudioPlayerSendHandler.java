@@ -1,22 +1,32 @@
 package net.toadless.radio.objects.music;
 
-import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
 import net.dv8tion.jda.api.audio.AudioSendHandler;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 
+/**
+ * Lives as long as its {@link GuildMusicManager}. Frames are written straight into a direct buffer owned by this
+ * handler, so JDA doesn't have to copy them out of the heap and the 20ms send path allocates nothing.
+ * <p>
+ * The buffer is never handed to another handler, JDA's send thread may still be reading it after the handler was
+ * removed from the audio manager.
+ */
 public class AudioPlayerSendHandler implements AudioSendHandler
 {
-    private final AudioPlayer audioPlayer;
+    private static final int FRAME_BUFFER_SIZE = 1024;
+
+    private final TrackScheduler scheduler;
     private final ByteBuffer buffer;
     private final MutableAudioFrame frame;
 
-    public AudioPlayerSendHandler(AudioPlayer audioPlayer)
+    private volatile boolean released;
+
+    public AudioPlayerSendHandler(TrackScheduler scheduler)
     {
-        this.audioPlayer = audioPlayer;
-        this.buffer = ByteBuffer.allocate(1024);
+        this.scheduler = scheduler;
+        this.buffer = ByteBuffer.allocateDirect(FRAME_BUFFER_SIZE);
         this.frame = new MutableAudioFrame();
         this.frame.setBuffer(buffer);
     }
@@ -24,7 +34,7 @@ public class AudioPlayerSendHandler implements AudioSendHandler
     @Override
     public boolean canProvide()
     {
-        return audioPlayer.provide(frame);
+        return !released && scheduler.provide(frame);
     }
 
     @Override
@@ -39,4 +49,12 @@ public class AudioPlayerSendHandler implements AudioSendHandler
     {
         return true;
     }
-}
\ No newline at end of file
+
+    /**
+     * Stops providing frames, the buffer is freed along with the handler once JDA drops its reference.
+     */
+    public void release()
+    {
+        released = true;
+    }
+}
@@ -0,0 +1,168 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * A single source player whose opus frames are shared by every guild subscribed to the same live stream.
+ * <p>
+ * Frames are kept in a small ring, each subscriber reads them in order from its own cursor and skips ahead to the
+ * newest frame if it falls more than a ring behind (for example while paused).
+ */
+public class Broadcast
+{
+    private static final int RING_SIZE = 64; // ~1.3 seconds of audio
+
+    private final BroadcastManager manager;
+    private final String key;
+    private final AudioPlayer player;
+    private final ByteBuffer buffer;
+    private final MutableAudioFrame frame;
+    private final byte[][] ring;
+
+    private long sequence;
+    private int subscribers;
+    private boolean closed;
+
+    public Broadcast(BroadcastManager manager, String key, AudioPlayer player, AudioTrack source)
+    {
+        this.manager = manager;
+        this.key = key;
+        this.player = player;
+        this.buffer = ByteBuffer.allocate(4096);
+        this.frame = new MutableAudioFrame();
+        this.frame.setBuffer(buffer);
+        this.ring = new byte[RING_SIZE][];
+
+        this.player.addListener(new AudioEventAdapter()
+        {
+            @Override
+            public void onTrackEnd(AudioPlayer player, AudioTrack track, AudioTrackEndReason endReason)
+            {
+                manager.remove(Broadcast.this);
+            }
+        });
+        this.player.startTrack(source, false);
+    }
+
+    public String getKey()
+    {
+        return key;
+    }
+
+    /**
+     * Pulls the next frame from the source player, called by the {@link BroadcastManager} every 20ms.
+     */
+    public void tick()
+    {
+        if (!player.provide(frame))
+        {
+            return;
+        }
+
+        ((Buffer) buffer).flip();
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        ((Buffer) buffer).clear();
+
+        synchronized (this)
+        {
+            ring[(int) (sequence % RING_SIZE)] = data;
+            sequence++;
+            notifyAll();
+        }
+    }
+
+    public synchronized Subscription subscribe()
+    {
+        subscribers++;
+        return new Subscription(Math.max(0, sequence - 1));
+    }
+
+    public synchronized int getSubscriberCount()
+    {
+        return subscribers;
+    }
+
+    public synchronized boolean isClosed()
+    {
+        return closed;
+    }
+
+    public void close()
+    {
+        synchronized (this)
+        {
+            if (closed) return;
+
+            closed = true;
+            notifyAll();
+        }
+        player.destroy();
+    }
+
+    private synchronized byte[] read(Subscription subscription) throws InterruptedException
+    {
+        while (!closed && subscription.cursor >= sequence)
+        {
+            wait();
+        }
+
+        if (closed)
+        {
+            return null;
+        }
+
+        if (sequence - subscription.cursor > RING_SIZE)
+        {
+            subscription.cursor = sequence - 1;
+        }
+
+        return ring[(int) (subscription.cursor++ % RING_SIZE)];
+    }
+
+    private void unsubscribe()
+    {
+        synchronized (this)
+        {
+            subscribers--;
+        }
+        manager.unsubscribed(this);
+    }
+
+    public class Subscription implements AutoCloseable
+    {
+        private long cursor;
+        private boolean released;
+
+        private Subscription(long cursor)
+        {
+            this.cursor = cursor;
+        }
+
+        /**
+         * Blocks until the next frame is available.
+         *
+         * @return the encoded frame, or null once the broadcast has ended
+         */
+        public byte[] next() throws InterruptedException
+        {
+            return read(this);
+        }
+
+        @Override
+        public void close()
+        {
+            if (released) return;
+
+            released = true;
+            unsubscribe();
+        }
+    }
+}
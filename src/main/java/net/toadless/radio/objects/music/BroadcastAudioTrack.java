@@ -0,0 +1,67 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerOptions;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.InternalAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioProcessingContext;
+import com.sedmelluq.discord.lavaplayer.track.playback.ImmutableAudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+
+/**
+ * Plays a live stream by forwarding the frames of a shared {@link Broadcast} instead of decoding it again.
+ * <p>
+ * The frames are already encoded at the default volume, so as soon as the player has a volume or filter of its own
+ * the track falls back to decoding the stream itself.
+ */
+public class BroadcastAudioTrack extends ForwardingAudioTrack
+{
+    private final BroadcastManager broadcasts;
+
+    public BroadcastAudioTrack(AudioTrack source, BroadcastManager broadcasts)
+    {
+        super(source);
+        this.broadcasts = broadcasts;
+    }
+
+    @Override
+    public void process(LocalAudioTrackExecutor executor) throws Exception
+    {
+        AudioProcessingContext context = executor.getProcessingContext();
+
+        if (!deviates(context.playerOptions))
+        {
+            try (Broadcast.Subscription subscription = broadcasts.subscribe(source))
+            {
+                executor.executeProcessingLoop(() ->
+                {
+                    long timecode = 0;
+                    byte[] data;
+
+                    while (!deviates(context.playerOptions) && (data = subscription.next()) != null)
+                    {
+                        context.frameBuffer.consume(new ImmutableAudioFrame(timecode, data, GuildMusicManager.DEFAULT_VOLUME, context.outputFormat));
+                        timecode += 20;
+                    }
+                }, null);
+            }
+
+            if (!deviates(context.playerOptions))
+            {
+                return; // the broadcast ended
+            }
+        }
+
+        processDelegate((InternalAudioTrack) source.makeClone(), executor);
+    }
+
+    private static boolean deviates(AudioPlayerOptions options)
+    {
+        return options.volumeLevel.get() != GuildMusicManager.DEFAULT_VOLUME || options.filterFactory.get() != null;
+    }
+
+    @Override
+    protected AudioTrack makeShallowClone()
+    {
+        return new BroadcastAudioTrack(source.makeClone(), broadcasts);
+    }
+}
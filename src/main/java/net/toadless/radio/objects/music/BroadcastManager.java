@@ -0,0 +1,100 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns one {@link Broadcast} per live stream that at least one guild is listening to.
+ */
+public class BroadcastManager
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastManager.class);
+
+    private final AudioPlayerManager playerManager;
+    private final Map<String, Broadcast> broadcasts;
+    private final ScheduledExecutorService ticker;
+
+    public BroadcastManager(AudioPlayerManager playerManager)
+    {
+        this.playerManager = playerManager;
+        this.broadcasts = new ConcurrentHashMap<>();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "broadcast-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.ticker.scheduleAtFixedRate(this::tick, 20, 20, TimeUnit.MILLISECONDS);
+    }
+
+    public static String getKey(AudioTrack track)
+    {
+        return track.getInfo().uri == null ? track.getIdentifier() : track.getInfo().uri;
+    }
+
+    public synchronized Broadcast.Subscription subscribe(AudioTrack source)
+    {
+        String key = getKey(source);
+        Broadcast broadcast = broadcasts.get(key);
+
+        if (broadcast == null || broadcast.isClosed())
+        {
+            LOGGER.debug("Starting broadcast for " + key);
+            broadcast = new Broadcast(this, key, playerManager.createPlayer(), source.makeClone());
+            broadcasts.put(key, broadcast);
+        }
+
+        return broadcast.subscribe();
+    }
+
+    synchronized void unsubscribed(Broadcast broadcast)
+    {
+        if (broadcast.getSubscriberCount() == 0)
+        {
+            remove(broadcast);
+        }
+    }
+
+    synchronized void remove(Broadcast broadcast)
+    {
+        if (broadcasts.remove(broadcast.getKey(), broadcast))
+        {
+            LOGGER.debug("Stopping broadcast for " + broadcast.getKey());
+        }
+        broadcast.close();
+    }
+
+    private void tick()
+    {
+        for (Broadcast broadcast : broadcasts.values())
+        {
+            try
+            {
+                broadcast.tick();
+            }
+            catch (Exception exception)
+            {
+                LOGGER.error("Failed to provide a frame for broadcast " + broadcast.getKey(), exception);
+            }
+        }
+    }
+
+    public int getBroadcastCount()
+    {
+        return broadcasts.size();
+    }
+
+    public int getSubscriberCount()
+    {
+        return broadcasts.values().stream().mapToInt(Broadcast::getSubscriberCount).sum();
+    }
+}
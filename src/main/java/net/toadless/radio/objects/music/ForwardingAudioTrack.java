@@ -0,0 +1,36 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DelegatedAudioTrack;
+
+/**
+ * A track that is played from somewhere other than its own source, but is stored and displayed as the source.
+ */
+public abstract class ForwardingAudioTrack extends DelegatedAudioTrack
+{
+    protected final AudioTrack source;
+
+    protected ForwardingAudioTrack(AudioTrack source)
+    {
+        super(source.getInfo());
+        this.source = source;
+    }
+
+    public AudioTrack getSource()
+    {
+        return source;
+    }
+
+    @Override
+    public boolean isSeekable()
+    {
+        return source.isSeekable();
+    }
+
+    @Override
+    public AudioSourceManager getSourceManager()
+    {
+        return source.getSourceManager();
+    }
+}
@@ -10,23 +10,34 @@ import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.managers.AudioManager;
+import net.toadless.radio.modules.LyricsModule;
 import net.toadless.radio.objects.Emote;
+import net.toadless.radio.objects.node.NodeManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class GuildMusicManager
 {
-    private final AudioPlayer player;
+    public static final int DEFAULT_VOLUME = 100; // anything else forces the pcm pipeline
+
+    private final long guildId;
     private final TrackScheduler scheduler;
+    private final AudioPlayerSendHandler sendHandler;
     private MessageChannel channel;
     private long controllerId;
-    private int volume = 30;
+    private int volume = DEFAULT_VOLUME;
+    private ResolutionPipeline pipeline;
+
+    public GuildMusicManager(long guildId, AudioPlayerManager manager, int spillThreshold, TransitionMetrics metrics, @Nullable BroadcastManager broadcasts, @Nullable NodeManager nodes, LyricsModule lyrics)
+    {
+        this.guildId = guildId;
+        scheduler = new TrackScheduler(manager.createPlayer(), manager.createPlayer(), this, new TrackCodec(manager), spillThreshold, metrics, broadcasts, nodes, lyrics);
+        sendHandler = new AudioPlayerSendHandler(scheduler);
+    }
 
-    public GuildMusicManager(AudioPlayerManager manager)
+    public long getGuildId()
     {
-        player = manager.createPlayer();
-        scheduler = new TrackScheduler(player, this);
-        player.addListener(scheduler);
+        return guildId;
     }
 
     public MessageChannel getChannel()
@@ -34,9 +45,12 @@ public class GuildMusicManager
         return channel;
     }
 
+    /**
+     * @return the active player, this changes whenever a prefetched track takes over
+     */
     public AudioPlayer getPlayer()
     {
-        return player;
+        return scheduler.getPlayer();
     }
 
     public TrackScheduler getScheduler()
@@ -46,28 +60,28 @@ public class GuildMusicManager
 
     public boolean isPlaying()
     {
-        return player.getPlayingTrack() != null;
+        return getPlayer().getPlayingTrack() != null;
     }
 
     public AudioPlayerSendHandler getSendHandler()
     {
-        return new AudioPlayerSendHandler(player);
+        return sendHandler;
     }
 
-    public void play(VoiceChannel channel, AudioTrack track, User user)
+    public void play(VoiceChannel channel, AudioTrack track, UserSnowflake user)
     {
         AudioManager manager = channel.getGuild().getAudioManager();
         manager.openAudioConnection(channel);
         scheduler.queue(track, user);
-        player.setVolume(volume);
+        getPlayer().setVolume(volume);
     }
 
-    public void playAll(VoiceChannel channel, List<AudioTrack> tracks, User user)
+    public void playAll(VoiceChannel channel, List<AudioTrack> tracks, UserSnowflake user)
     {
         AudioManager manager = channel.getGuild().getAudioManager();
         manager.openAudioConnection(channel);
-        tracks.forEach(track -> scheduler.queue(track, user));
-        player.setVolume(volume);
+        scheduler.queueAll(tracks, user);
+        getPlayer().setVolume(volume);
     }
 
     public void sendController(MessageEmbed embed)
@@ -106,12 +120,13 @@ public class GuildMusicManager
 
     public void togglePause()
     {
-        player.setPaused(!player.isPaused());
+        getPlayer().setPaused(!getPlayer().isPaused());
+        scheduler.markDirty();
     }
 
     public boolean getPaused()
     {
-        return player.isPaused();
+        return getPlayer().isPaused();
     }
 
     public void leave(@NotNull Guild guild)
@@ -124,14 +139,15 @@ public class GuildMusicManager
     {
         AudioManager manager = channel.getGuild().getAudioManager();
         manager.openAudioConnection(channel);
-        player.setVolume(volume);
+        getPlayer().setVolume(volume);
     }
 
     public void kill(@NotNull Guild guild)
     {
         leave(guild);
-        player.destroy();
+        destroy();
         scheduler.clear();
+        scheduler.clearHistory();
     }
 
     public void bind(@Nullable MessageChannel channel)
@@ -150,12 +166,30 @@ public class GuildMusicManager
     public void setVolume(int volume)
     {
         this.volume = volume;
-        player.setVolume(volume);
+        getPlayer().setVolume(volume);
+        scheduler.markDirty();
     }
 
     public int getVolume()
     {
-        return player.getVolume();
+        return getPlayer().getVolume();
+    }
+
+    /**
+     * @return whether the player runs without volume or filter processing, in which case lavaplayer forwards the
+     * source opus frames without decoding and re-encoding them.
+     */
+    public boolean isPassthrough()
+    {
+        return getPlayer().getVolume() == DEFAULT_VOLUME && !scheduler.hasActiveFilters();
+    }
+
+    /**
+     * Stops both the active and the standby player.
+     */
+    public void destroy()
+    {
+        scheduler.destroy();
     }
 
     public void unbind()
@@ -163,6 +197,34 @@ public class GuildMusicManager
         this.channel = null;
     }
 
+    /**
+     * Reports on the latest Spotify import, the summary of the previous one is written as it is replaced.
+     */
+    public synchronized void setPipeline(@Nullable ResolutionPipeline pipeline)
+    {
+        if (this.pipeline != null)
+        {
+            this.pipeline.close();
+        }
+        this.pipeline = pipeline;
+    }
+
+    public synchronized void resolved(@NotNull SpotifyAudioTrack track, boolean found)
+    {
+        if (pipeline != null)
+        {
+            pipeline.resolved(track, found);
+        }
+    }
+
+    public synchronized void retried(@NotNull SpotifyAudioTrack track)
+    {
+        if (pipeline != null)
+        {
+            pipeline.retried(track);
+        }
+    }
+
     public long getControllerId()
     {
         return controllerId;
@@ -0,0 +1,11 @@
+package net.toadless.radio.objects.music;
+
+/**
+ * Load classes in the order they are served, a class only gets a slot when every class before it is empty.
+ */
+public enum LoadPriority
+{
+    INTERACTIVE,
+    RESOLVE, // placeholders close to the head of a queue
+    BULK
+}
@@ -0,0 +1,275 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sits in front of the player manager so a single large import can't starve everyone else.
+ * <p>
+ * Loads are queued per priority class and per guild. Free slots go to the highest non-empty class, and within a
+ * class the guilds take turns one load at a time. At most {@code concurrency} loads run at once. Interactive loads
+ * keep lavaplayer's per-guild ordering, bulk loads run unordered because their callers collect results by index.
+ */
+public class LoadScheduler
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadScheduler.class);
+
+    private final AudioPlayerManager playerManager;
+    private final int concurrency;
+    private final Map<LoadPriority, PriorityClass> classes;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalWait = new AtomicLong();
+    private int running;
+
+    public LoadScheduler(AudioPlayerManager playerManager, int concurrency)
+    {
+        this.playerManager = playerManager;
+        this.concurrency = concurrency;
+        this.classes = new EnumMap<>(LoadPriority.class);
+
+        for (LoadPriority priority : LoadPriority.values())
+        {
+            classes.put(priority, new PriorityClass());
+        }
+    }
+
+    public void load(long guildId, Object orderKey, String identifier, LoadPriority priority, AudioLoadResultHandler handler)
+    {
+        synchronized (this)
+        {
+            classes.get(priority).offer(guildId, new Load(orderKey, identifier, priority, handler));
+        }
+        dispatch();
+    }
+
+    private void dispatch()
+    {
+        List<Load> toStart = new ArrayList<>();
+
+        synchronized (this)
+        {
+            while (running < concurrency)
+            {
+                Load load = poll();
+
+                if (load == null)
+                {
+                    break;
+                }
+
+                running++;
+                toStart.add(load);
+            }
+        }
+
+        toStart.forEach(this::start);
+    }
+
+    private Load poll()
+    {
+        for (PriorityClass priorityClass : classes.values())
+        {
+            Load load = priorityClass.poll();
+
+            if (load != null)
+            {
+                return load;
+            }
+        }
+        return null;
+    }
+
+    private void start(Load load)
+    {
+        totalWait.addAndGet(System.nanoTime() - load.queuedAt);
+
+        try
+        {
+            if (load.priority == LoadPriority.INTERACTIVE)
+            {
+                playerManager.loadItemOrdered(load.orderKey, load.identifier, load);
+            }
+            else
+            {
+                playerManager.loadItem(load.identifier, load);
+            }
+        }
+        catch (Exception exception)
+        {
+            LOGGER.error("Failed to submit load for " + load.identifier, exception);
+            load.complete();
+        }
+    }
+
+    private void finished()
+    {
+        completed.incrementAndGet();
+
+        synchronized (this)
+        {
+            running--;
+        }
+        dispatch();
+    }
+
+    public synchronized int getQueueDepth(LoadPriority priority)
+    {
+        return classes.get(priority).size;
+    }
+
+    public synchronized int getRunning()
+    {
+        return running;
+    }
+
+    public long getCompleted()
+    {
+        return completed.get();
+    }
+
+    public long getAverageWaitMillis()
+    {
+        long count = completed.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWait.get() / count);
+    }
+
+    /**
+     * The queues of one priority class, guilds with pending loads are served round robin.
+     */
+    private static class PriorityClass
+    {
+        private final Map<Long, Queue<Load>> guilds = new HashMap<>();
+        private final Queue<Long> turns = new ArrayDeque<>();
+        private int size;
+
+        private void offer(long guildId, Load load)
+        {
+            guilds.computeIfAbsent(guildId, id ->
+            {
+                turns.offer(id);
+                return new ArrayDeque<>();
+            }).offer(load);
+            size++;
+        }
+
+        private Load poll()
+        {
+            Long guildId = turns.poll();
+
+            if (guildId == null)
+            {
+                return null;
+            }
+
+            Queue<Load> queue = guilds.get(guildId);
+            Load load = queue.poll();
+
+            if (queue.isEmpty())
+            {
+                guilds.remove(guildId);
+            }
+            else
+            {
+                turns.offer(guildId);
+            }
+
+            size--;
+            return load;
+        }
+    }
+
+    private class Load implements AudioLoadResultHandler
+    {
+        private final Object orderKey;
+        private final String identifier;
+        private final LoadPriority priority;
+        private final AudioLoadResultHandler handler;
+        private final long queuedAt;
+        private boolean done;
+
+        private Load(Object orderKey, String identifier, LoadPriority priority, AudioLoadResultHandler handler)
+        {
+            this.orderKey = orderKey;
+            this.identifier = identifier;
+            this.priority = priority;
+            this.handler = handler;
+            this.queuedAt = System.nanoTime();
+        }
+
+        @Override
+        public void trackLoaded(AudioTrack track)
+        {
+            try
+            {
+                handler.trackLoaded(track);
+            }
+            finally
+            {
+                complete();
+            }
+        }
+
+        @Override
+        public void playlistLoaded(AudioPlaylist playlist)
+        {
+            try
+            {
+                handler.playlistLoaded(playlist);
+            }
+            finally
+            {
+                complete();
+            }
+        }
+
+        @Override
+        public void noMatches()
+        {
+            try
+            {
+                handler.noMatches();
+            }
+            finally
+            {
+                complete();
+            }
+        }
+
+        @Override
+        public void loadFailed(FriendlyException exception)
+        {
+            try
+            {
+                handler.loadFailed(exception);
+            }
+            finally
+            {
+                complete();
+            }
+        }
+
+        private synchronized void complete()
+        {
+            if (done) return;
+
+            done = true;
+            finished();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerOptions;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.InternalAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioProcessingContext;
+import com.sedmelluq.discord.lavaplayer.track.playback.ImmutableAudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+import net.toadless.radio.objects.exception.NodeUnavailableException;
+import net.toadless.radio.objects.node.NodeManager;
+import net.toadless.radio.objects.node.RemoteNode;
+import net.toadless.radio.objects.node.RemoteSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Plays a track on an audio node and forwards the encoded frames it sends back into the local player.
+ * <p>
+ * If the node goes away the track moves to the next best node from the last received position, up to
+ * {@link #MAX_NODE_ATTEMPTS} nodes. Once no node is left, every attempt was used up, or bass boost is enabled (filters
+ * are only applied locally), the rest of the track is decoded locally.
+ */
+public class RemoteAudioTrack extends ForwardingAudioTrack
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(RemoteAudioTrack.class);
+    private static final int MAX_NODE_ATTEMPTS = 3;
+
+    private final NodeManager nodes;
+    private final TrackCodec codec;
+
+    public RemoteAudioTrack(AudioTrack source, NodeManager nodes, TrackCodec codec)
+    {
+        super(source);
+        this.nodes = nodes;
+        this.codec = codec;
+    }
+
+    @Override
+    public void process(LocalAudioTrackExecutor executor) throws Exception
+    {
+        AudioProcessingContext context = executor.getProcessingContext();
+        // nodes don't know about spotify placeholders, so they get the resolved track
+        byte[] encoded = codec.encode(source instanceof SpotifyAudioTrack ? ((SpotifyAudioTrack) source).getResolved() : source);
+        long[] timecode = {executor.getPosition()};
+        RemoteNode node;
+        int attempts = 0;
+
+        while (attempts++ < MAX_NODE_ATTEMPTS && !hasFilters(context.playerOptions) && (node = nodes.getBestNode()) != null)
+        {
+            Outcome outcome;
+
+            try (RemoteSession session = node.play(encoded, timecode[0], context.playerOptions.volumeLevel.get()))
+            {
+                Outcome[] result = {Outcome.ENDED};
+
+                executor.executeProcessingLoop(() -> result[0] = stream(session, context, timecode), position ->
+                {
+                    timecode[0] = position;
+                    session.seek(position);
+                });
+
+                outcome = result[0];
+
+                if (outcome == Outcome.ENDED && session.hasFailed())
+                {
+                    throw new FriendlyException("The audio node could not play this track.", FriendlyException.Severity.COMMON, null);
+                }
+            }
+            catch (NodeUnavailableException exception)
+            {
+                outcome = Outcome.NODE_LOST;
+            }
+
+            if (outcome == Outcome.ENDED)
+            {
+                return;
+            }
+
+            if (outcome == Outcome.NODE_LOST)
+            {
+                LOGGER.warn("Audio node " + node.getAddress() + " went away, moving " + source.getIdentifier() +
+                        (attempts < MAX_NODE_ATTEMPTS ? "" : " to local decoding"));
+            }
+        }
+
+        if (timecode[0] > 0)
+        {
+            executor.setPosition(timecode[0]);
+        }
+
+        processDelegate((InternalAudioTrack) source.makeClone(), executor);
+    }
+
+    /**
+     * Only a lost connection moves the track, anything else fails it like a local decoding error would.
+     */
+    private Outcome stream(RemoteSession session, AudioProcessingContext context, long[] timecode) throws InterruptedException
+    {
+        int volume = context.playerOptions.volumeLevel.get();
+
+        try
+        {
+            byte[] frame;
+
+            while ((frame = session.next()) != null)
+            {
+                if (hasFilters(context.playerOptions))
+                {
+                    return Outcome.FILTERED;
+                }
+
+                if (context.playerOptions.volumeLevel.get() != volume)
+                {
+                    volume = context.playerOptions.volumeLevel.get();
+                    session.setVolume(volume); // the node applies the volume, frames already in flight keep the old one
+                }
+
+                context.frameBuffer.consume(new ImmutableAudioFrame(timecode[0], frame, volume, context.outputFormat));
+                timecode[0] += 20;
+            }
+            return Outcome.ENDED;
+        }
+        catch (NodeUnavailableException exception)
+        {
+            return Outcome.NODE_LOST;
+        }
+        catch (IOException exception)
+        {
+            throw new FriendlyException("The audio node connection failed.", FriendlyException.Severity.SUSPICIOUS, exception);
+        }
+    }
+
+    private static boolean hasFilters(AudioPlayerOptions options)
+    {
+        return options.filterFactory.get() != null;
+    }
+
+    @Override
+    protected AudioTrack makeShallowClone()
+    {
+        return new RemoteAudioTrack(source.makeClone(), nodes, codec);
+    }
+
+    private enum Outcome
+    {
+        ENDED,
+        NODE_LOST,
+        FILTERED
+    }
+}
@@ -0,0 +1,389 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
+import net.jodah.expiringmap.ExpirationPolicy;
+import net.jodah.expiringmap.ExpiringMap;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers what searches and links resolved to, so popular queries skip lavaplayer entirely.
+ * <p>
+ * Results are kept encoded and decoded for every hit, tracks can only ever be played once. Identical loads that
+ * arrive while one is already running wait for it instead of starting their own. Each guild gets its results in the
+ * order it asked for them, a hit is held back while an earlier load of the same guild is still running.
+ */
+public class ResolutionCache
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResolutionCache.class);
+
+    private static final int MAX_TRACKS = 250; // larger playlists are rare and not worth the memory
+    private static final long NO_MATCHES_MINUTES = 1;
+    private static final long RESULT_MINUTES = 30;
+    private static final CompletableFuture<Void> NOTHING_AHEAD = CompletableFuture.completedFuture(null);
+
+    private final LoadScheduler loadScheduler;
+    private final TrackCodec codec;
+    private final ExpiringMap<String, Result> results;
+    private final Map<String, List<AudioLoadResultHandler>> inFlight;
+    private final Map<Long, CompletableFuture<Void>> lastDelivery; // per guild, completes once its last load was handed over
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public ResolutionCache(LoadScheduler loadScheduler, TrackCodec codec)
+    {
+        this.loadScheduler = loadScheduler;
+        this.codec = codec;
+        this.results = ExpiringMap.builder()
+                .maxSize(5_000)
+                .expirationPolicy(ExpirationPolicy.CREATED)
+                .variableExpiration()
+                .build();
+        this.inFlight = new HashMap<>();
+        this.lastDelivery = new HashMap<>();
+    }
+
+    /**
+     * Loads through the cache, misses go through the load scheduler with interactive priority.
+     */
+    public void load(long guildId, Object orderKey, @NotNull String identifier, @NotNull AudioLoadResultHandler handler)
+    {
+        String key = normalize(identifier);
+        Result result = results.get(key);
+        handler = order(guildId, handler, result == null);
+
+        if (result != null)
+        {
+            hits.incrementAndGet();
+            result.replay(handler);
+            return;
+        }
+
+        synchronized (inFlight)
+        {
+            List<AudioLoadResultHandler> waiting = inFlight.get(key);
+
+            if (waiting != null)
+            {
+                coalesced.incrementAndGet();
+                waiting.add(handler);
+                return;
+            }
+
+            waiting = new ArrayList<>();
+            waiting.add(handler);
+            inFlight.put(key, waiting);
+        }
+
+        misses.incrementAndGet();
+        loadScheduler.load(guildId, orderKey, identifier, LoadPriority.INTERACTIVE, new Loader(key));
+    }
+
+    /**
+     * Links are kept as they are, searches ignore case and repeated whitespace.
+     */
+    public static @NotNull String normalize(@NotNull String identifier)
+    {
+        String trimmed = identifier.trim();
+
+        if (trimmed.startsWith("http://") || trimmed.startsWith("https://"))
+        {
+            return trimmed;
+        }
+        return trimmed.replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A hit with nothing of its guild ahead of it is handed over right away, anything else waits its turn.
+     */
+    private AudioLoadResultHandler order(long guildId, AudioLoadResultHandler handler, boolean miss)
+    {
+        synchronized (lastDelivery)
+        {
+            CompletableFuture<Void> previous = lastDelivery.get(guildId);
+
+            if (previous == null && !miss)
+            {
+                return handler;
+            }
+
+            Ordered ordered = new Ordered(guildId, previous == null ? NOTHING_AHEAD : previous, handler);
+            lastDelivery.put(guildId, ordered.delivered);
+            return ordered;
+        }
+    }
+
+    private List<AudioLoadResultHandler> takeWaiting(String key)
+    {
+        synchronized (inFlight)
+        {
+            return inFlight.remove(key);
+        }
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public long getCoalesced()
+    {
+        return coalesced.get();
+    }
+
+    public int getSize()
+    {
+        return results.size();
+    }
+
+    private class Loader implements AudioLoadResultHandler
+    {
+        private final String key;
+
+        private Loader(String key)
+        {
+            this.key = key;
+        }
+
+        @Override
+        public void trackLoaded(AudioTrack track)
+        {
+            complete(encode(null, List.of(track), -1, false, true));
+        }
+
+        @Override
+        public void playlistLoaded(AudioPlaylist playlist)
+        {
+            List<AudioTrack> tracks = playlist.getTracks();
+            int selected = playlist.getSelectedTrack() == null ? -1 : tracks.indexOf(playlist.getSelectedTrack());
+
+            complete(encode(playlist.getName(), tracks, selected, playlist.isSearchResult(), false));
+        }
+
+        @Override
+        public void noMatches()
+        {
+            Result result = new Result(null, List.of(), -1, false, false);
+            results.put(key, result, NO_MATCHES_MINUTES, TimeUnit.MINUTES);
+            replay(result);
+        }
+
+        @Override
+        public void loadFailed(FriendlyException exception)
+        {
+            List<AudioLoadResultHandler> waiting = takeWaiting(key);
+
+            if (waiting != null)
+            {
+                for (AudioLoadResultHandler handler : waiting)
+                {
+                    try
+                    {
+                        handler.loadFailed(exception);
+                    }
+                    catch (Exception handlerException)
+                    {
+                        LOGGER.warn("A handler failed for " + key, handlerException);
+                    }
+                }
+            }
+        }
+
+        private Result encode(String name, List<AudioTrack> tracks, int selected, boolean searchResult, boolean single)
+        {
+            List<byte[]> encoded = new ArrayList<>(tracks.size());
+
+            try
+            {
+                for (AudioTrack track : tracks)
+                {
+                    encoded.add(codec.encode(track));
+                }
+            }
+            catch (IOException exception)
+            {
+                LOGGER.warn("Failed to encode the result for " + key, exception);
+                return null;
+            }
+            return new Result(name, encoded, selected, searchResult, single);
+        }
+
+        private void complete(Result result)
+        {
+            if (result == null)
+            {
+                loadFailed(new FriendlyException("Couldn't store the result.", FriendlyException.Severity.FAULT, null));
+                return;
+            }
+
+            if (result.tracks.size() <= MAX_TRACKS)
+            {
+                results.put(key, result, RESULT_MINUTES, TimeUnit.MINUTES);
+            }
+            replay(result);
+        }
+
+        private void replay(Result result)
+        {
+            List<AudioLoadResultHandler> waiting = takeWaiting(key);
+
+            if (waiting != null)
+            {
+                for (AudioLoadResultHandler handler : waiting)
+                {
+                    try
+                    {
+                        result.replay(handler);
+                    }
+                    catch (Exception exception)
+                    {
+                        LOGGER.warn("A handler failed for " + key, exception);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Holds a result back until every earlier load of the same guild has been handed over.
+     */
+    private class Ordered implements AudioLoadResultHandler
+    {
+        private final long guildId;
+        private final CompletableFuture<Void> previous;
+        private final AudioLoadResultHandler handler;
+        private final CompletableFuture<Void> delivered;
+
+        private Ordered(long guildId, CompletableFuture<Void> previous, AudioLoadResultHandler handler)
+        {
+            this.guildId = guildId;
+            this.previous = previous;
+            this.handler = handler;
+            this.delivered = new CompletableFuture<>();
+        }
+
+        @Override
+        public void trackLoaded(AudioTrack track)
+        {
+            deliver(() -> handler.trackLoaded(track));
+        }
+
+        @Override
+        public void playlistLoaded(AudioPlaylist playlist)
+        {
+            deliver(() -> handler.playlistLoaded(playlist));
+        }
+
+        @Override
+        public void noMatches()
+        {
+            deliver(handler::noMatches);
+        }
+
+        @Override
+        public void loadFailed(FriendlyException exception)
+        {
+            deliver(() -> handler.loadFailed(exception));
+        }
+
+        private void deliver(Runnable callback)
+        {
+            previous.whenComplete((ignored, throwable) ->
+            {
+                try
+                {
+                    callback.run();
+                }
+                catch (Exception exception)
+                {
+                    LOGGER.warn("A handler failed for guild " + guildId, exception);
+                }
+                finally
+                {
+                    synchronized (lastDelivery)
+                    {
+                        lastDelivery.remove(guildId, delivered);
+                    }
+                    delivered.complete(null);
+                }
+            });
+        }
+    }
+
+    private class Result
+    {
+        private final String name;
+        private final List<byte[]> tracks;
+        private final int selected;
+        private final boolean searchResult;
+        private final boolean single;
+
+        private Result(String name, List<byte[]> tracks, int selected, boolean searchResult, boolean single)
+        {
+            this.name = name;
+            this.tracks = tracks;
+            this.selected = selected;
+            this.searchResult = searchResult;
+            this.single = single;
+        }
+
+        private void replay(AudioLoadResultHandler handler)
+        {
+            List<AudioTrack> decoded = new ArrayList<>(tracks.size());
+
+            try
+            {
+                for (byte[] track : tracks)
+                {
+                    AudioTrack result = codec.decode(track);
+
+                    if (result != null)
+                    {
+                        decoded.add(result);
+                    }
+                }
+            }
+            catch (IOException exception)
+            {
+                handler.loadFailed(new FriendlyException("Couldn't read the cached result.", FriendlyException.Severity.FAULT, exception));
+                return;
+            }
+
+            if (decoded.isEmpty())
+            {
+                handler.noMatches();
+            }
+            else if (single)
+            {
+                handler.trackLoaded(decoded.get(0));
+            }
+            else
+            {
+                AudioTrack selectedTrack = selected >= 0 && selected < decoded.size() ? decoded.get(selected) : null;
+                handler.playlistLoaded(new BasicAudioPlaylist(name, decoded, selectedTrack, searchResult));
+            }
+        }
+    }
+}
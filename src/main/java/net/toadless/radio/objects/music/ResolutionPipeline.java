@@ -0,0 +1,204 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.toadless.radio.objects.Emote;
+
+import java.awt.*;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports on a Spotify import in a single message, which is edited as pages are queued and as the queued entries are
+ * resolved, and ends up as the summary of the import.
+ * <p>
+ * Entries are queued as placeholders in their original order, one page at a time, and each is only searched once it
+ * is within a few places of playing, which bounds the searches an import has in flight. Failed searches are retried
+ * with backoff by {@link SpotifySourceManager}.
+ */
+public class ResolutionPipeline
+{
+    private static final long PROGRESS_INTERVAL_MILLIS = 3000;
+    private static final int MAX_LISTED_FAILURES = 5;
+
+    private final MessageChannel channel;
+    private final Map<String, Integer> pending; // spotify id to the number of queued copies that haven't resolved yet
+    private final Deque<String> failures;
+
+    private int total;
+    private int queued;
+    private int resolved;
+    private int failed;
+    private int retried;
+    private boolean loading;
+    private boolean interrupted;
+    private boolean closed;
+
+    private Message progress;
+    private long lastProgress;
+
+    public ResolutionPipeline(MessageChannel channel)
+    {
+        this.channel = channel;
+        this.pending = new HashMap<>();
+        this.failures = new ArrayDeque<>();
+        this.loading = true;
+    }
+
+    /**
+     * Sends the progress message, this replaces the separate "Queueing N tracks" message.
+     */
+    public void start(int total)
+    {
+        synchronized (this)
+        {
+            this.total = total;
+        }
+
+        channel.sendMessageEmbeds(embed(Emote.SUCCESS.getAsChat() + "Queueing " + total + " tracks...", Color.GREEN))
+                .queue(this::setProgress, error -> {});
+    }
+
+    /**
+     * Must be called before the tracks are queued, so none of them resolve before they are known here.
+     */
+    public synchronized void pageQueued(List<AudioTrack> tracks)
+    {
+        for (AudioTrack track : tracks)
+        {
+            if (track instanceof SpotifyAudioTrack)
+            {
+                pending.merge(track.getIdentifier(), 1, Integer::sum);
+            }
+        }
+
+        queued += tracks.size();
+        report();
+    }
+
+    public synchronized void loaded()
+    {
+        loading = false;
+        report(true);
+    }
+
+    /**
+     * The remaining pages couldn't be loaded, whatever was queued so far stays.
+     */
+    public synchronized void interrupted()
+    {
+        interrupted = true;
+        loaded();
+    }
+
+    /**
+     * Resolutions are shared per Spotify id, so every queued copy of the entry is counted at once and later reports
+     * for the same id are ignored.
+     */
+    public synchronized void resolved(SpotifyAudioTrack track, boolean found)
+    {
+        Integer copies = pending.remove(track.getIdentifier());
+
+        if (copies == null)
+        {
+            return;
+        }
+
+        if (found)
+        {
+            resolved += copies;
+        }
+        else
+        {
+            failed += copies;
+            failures.addLast(track.getInfo().title);
+
+            if (failures.size() > MAX_LISTED_FAILURES)
+            {
+                failures.removeFirst();
+            }
+        }
+        report();
+    }
+
+    public synchronized void retried(SpotifyAudioTrack track)
+    {
+        if (pending.containsKey(track.getIdentifier()))
+        {
+            retried++;
+        }
+    }
+
+    /**
+     * Writes the summary, entries that haven't resolved by now are left out of it.
+     */
+    public synchronized void close()
+    {
+        closed = true;
+        report(true);
+    }
+
+    private synchronized void setProgress(Message message)
+    {
+        this.progress = message;
+        report(true);
+    }
+
+    private void report()
+    {
+        report(false);
+    }
+
+    private void report(boolean force)
+    {
+        if (progress == null)
+        {
+            return; // not sent yet, or the summary was written already
+        }
+
+        boolean finished = closed || (!loading && pending.isEmpty());
+        long now = System.currentTimeMillis();
+
+        if (!force && !finished && now - lastProgress < PROGRESS_INTERVAL_MILLIS)
+        {
+            return;
+        }
+
+        lastProgress = now;
+        Message message = progress;
+        String counts = "Queued " + queued + " of " + total + " tracks" +
+                (resolved == 0 && failed == 0 ? "" : ", " + resolved + " resolved") +
+                (failed == 0 ? "" : ", " + failed + " couldn't be found (" + String.join(", ", failures) + ")") +
+                (retried == 0 ? "" : " (" + retried + " " + (retried == 1 ? "retry" : "retries") + ")") +
+                (interrupted ? ". Spotify returned an error before the rest could be loaded" : "");
+
+        if (!finished)
+        {
+            message.editMessageEmbeds(embed(Emote.SUCCESS.getAsChat() + counts + "...", Color.GREEN)).queue(null, error -> {});
+            return;
+        }
+
+        progress = null; // nothing is reported after the summary
+        boolean empty = queued == 0 || failed == queued;
+
+        message.editMessageEmbeds(embed((empty ? Emote.FAILURE : Emote.SUCCESS).getAsChat() + counts + ".", empty ? Color.RED : Color.GREEN))
+                .queue(edited -> edited.delete().queueAfter(10, TimeUnit.SECONDS, null, error -> {}), error -> {});
+    }
+
+    private static MessageEmbed embed(String description, Color colour)
+    {
+        return new EmbedBuilder()
+                .setDescription(description)
+                .setColor(colour)
+                .setTimestamp(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package net.toadless.radio.objects.music;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only, memory-mapped store for encoded queue entries.
+ * <p>
+ * The file is mapped in fixed size segments and a record never crosses a segment boundary, so an address is just
+ * the segment index in the upper 32 bits and the offset in the lower 32 bits. Space is reclaimed once every record
+ * has been released, and the owning {@link TrackQueue} copies the live records into a new file once the file is
+ * {@link #isFragmented() mostly dead space}. Not thread safe, the owning queue is only used under its lock.
+ */
+public class SpillFile implements Closeable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillFile.class);
+    private static final int SEGMENT_SIZE = 4 << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments;
+
+    private int writeSegment;
+    private int writeOffset;
+    private int live;
+    private long liveBytes;
+
+    public SpillFile() throws IOException
+    {
+        this.path = Files.createTempFile("radio-queue-", ".spill");
+        this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        this.segments = new ArrayList<>();
+    }
+
+    /**
+     * @return the address of the record, or -1 if it is too large to be spilled
+     */
+    public long write(byte[] data) throws IOException
+    {
+        if (data.length > SEGMENT_SIZE)
+        {
+            return -1;
+        }
+
+        if (segments.isEmpty() || writeOffset + data.length > SEGMENT_SIZE)
+        {
+            if (!segments.isEmpty()) writeSegment++;
+            writeOffset = 0;
+
+            if (writeSegment == segments.size())
+            {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) writeSegment * SEGMENT_SIZE, SEGMENT_SIZE));
+            }
+        }
+
+        long address = ((long) writeSegment << 32) | writeOffset;
+        ByteBuffer segment = segments.get(writeSegment).duplicate();
+        ((Buffer) segment).position(writeOffset);
+        segment.put(data);
+
+        writeOffset += data.length;
+        live++;
+        liveBytes += data.length;
+        return address;
+    }
+
+    public byte[] read(long address, int length)
+    {
+        byte[] data = new byte[length];
+        ByteBuffer segment = segments.get((int) (address >>> 32)).duplicate();
+        ((Buffer) segment).position((int) address);
+        segment.get(data);
+        return data;
+    }
+
+    public void release(int length)
+    {
+        liveBytes -= length;
+
+        if (--live > 0)
+        {
+            return;
+        }
+
+        // nothing references the file anymore, start writing from the beginning again
+        live = 0;
+        liveBytes = 0;
+        writeSegment = 0;
+        writeOffset = 0;
+    }
+
+    /**
+     * @return whether the file has grown past a segment and less than half of what was written is still referenced
+     */
+    public boolean isFragmented()
+    {
+        long written = (long) writeSegment * SEGMENT_SIZE + writeOffset;
+        return writeSegment > 0 && liveBytes < written / 2;
+    }
+
+    public int getSegmentCount()
+    {
+        return segments.size();
+    }
+
+    @Override
+    public void close()
+    {
+        segments.clear();
+
+        try
+        {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+        catch (IOException exception)
+        {
+            LOGGER.warn("Failed to delete spill file " + path, exception);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.DelegatedAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.InternalAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A queued Spotify entry that is only searched on YouTube once it gets close to playing.
+ */
+public class SpotifyAudioTrack extends DelegatedAudioTrack
+{
+    private static final long RESOLVE_TIMEOUT_SECONDS = 30;
+
+    private final String isrc;
+    private final SpotifySourceManager sourceManager;
+
+    private volatile long guildId; // whose load scheduler lane a search started by playing it runs in
+
+    public SpotifyAudioTrack(AudioTrackInfo trackInfo, String isrc, SpotifySourceManager sourceManager)
+    {
+        super(trackInfo);
+        this.isrc = isrc;
+        this.sourceManager = sourceManager;
+    }
+
+    public String getIsrc()
+    {
+        return isrc;
+    }
+
+    /**
+     * Set by the {@link TrackScheduler} that plays it, before it starts.
+     */
+    public void setGuildId(long guildId)
+    {
+        this.guildId = guildId;
+    }
+
+    public String getQuery()
+    {
+        return trackInfo.author + " " + trackInfo.title;
+    }
+
+    /**
+     * Starts the search in the background if it hasn't been started yet.
+     *
+     * @return the YouTube track, completed with null if there is no match
+     */
+    public CompletableFuture<AudioTrack> resolve(long guildId)
+    {
+        return sourceManager.resolve(this, guildId);
+    }
+
+    /**
+     * Blocks until the search has finished, a search that hasn't started yet runs for the guild playing the track.
+     */
+    public AudioTrack getResolved() throws InterruptedException
+    {
+        AudioTrack resolved;
+
+        try
+        {
+            resolved = sourceManager.resolve(this, guildId).get(RESOLVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        catch (ExecutionException | TimeoutException exception)
+        {
+            throw new FriendlyException("Couldn't search for " + trackInfo.title + ".", FriendlyException.Severity.COMMON, exception);
+        }
+
+        if (resolved == null)
+        {
+            throw new FriendlyException("Couldn't find " + trackInfo.title + " on YouTube.", FriendlyException.Severity.COMMON, null);
+        }
+        return resolved;
+    }
+
+    @Override
+    public void process(LocalAudioTrackExecutor executor) throws Exception
+    {
+        processDelegate((InternalAudioTrack) getResolved().makeClone(), executor);
+    }
+
+    @Override
+    public AudioSourceManager getSourceManager()
+    {
+        return sourceManager;
+    }
+
+    @Override
+    protected AudioTrack makeShallowClone()
+    {
+        SpotifyAudioTrack clone = new SpotifyAudioTrack(trackInfo, isrc, sourceManager);
+        clone.setGuildId(guildId);
+        return clone;
+    }
+}
@@ -0,0 +1,248 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.tools.DataFormatTools;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import net.jodah.expiringmap.ExpirationPolicy;
+import net.jodah.expiringmap.ExpiringMap;
+import net.toadless.radio.objects.cache.SpotifyTrackCache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Creates and encodes {@link SpotifyAudioTrack} placeholders and resolves them to YouTube tracks on demand.
+ * <p>
+ * Spotify links themselves are handled by the SpotifyModule, so this never loads items. Resolutions are shared
+ * between every copy of a placeholder, which matters because queued entries are decoded afresh on each access.
+ * Matches are also kept in a {@link SpotifyTrackCache} so popular tracks skip the search altogether.
+ */
+public class SpotifySourceManager implements AudioSourceManager
+{
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_MILLIS = 500;
+    private static final int CANDIDATES = 5;
+
+    private final LoadScheduler loadScheduler;
+    private final SpotifyTrackCache cache;
+    private final Map<String, CompletableFuture<AudioTrack>> resolutions;
+    private volatile BiConsumer<Long, SpotifyAudioTrack> retryListener = (guildId, track) -> {};
+
+    public SpotifySourceManager(LoadScheduler loadScheduler, SpotifyTrackCache cache)
+    {
+        this.loadScheduler = loadScheduler;
+        this.cache = cache;
+        this.resolutions = ExpiringMap.builder()
+                .maxSize(10_000)
+                .expirationPolicy(ExpirationPolicy.ACCESSED)
+                .expiration(1, TimeUnit.HOURS)
+                .build();
+    }
+
+    public SpotifyAudioTrack createTrack(String id, String artist, String title, long duration, String isrc)
+    {
+        return new SpotifyAudioTrack(new AudioTrackInfo(title, artist, duration, id, false, "https://open.spotify.com/track/" + id), isrc, this);
+    }
+
+    /**
+     * Starts resolving the placeholder unless it already is, a failed resolution is started again.
+     *
+     * @return the YouTube track to clone, completed with null if there is no match
+     */
+    public CompletableFuture<AudioTrack> resolve(SpotifyAudioTrack track, long guildId)
+    {
+        CompletableFuture<AudioTrack> future;
+
+        synchronized (resolutions)
+        {
+            future = resolutions.get(track.getIdentifier());
+
+            if (future != null && !future.isCompletedExceptionally())
+            {
+                return future;
+            }
+
+            future = new CompletableFuture<>();
+            resolutions.put(track.getIdentifier(), future);
+        }
+
+        CompletableFuture<AudioTrack> resolution = future;
+
+        // a failure has to complete the resolution as well, otherwise it is never started again
+        cache.get(track.getIdentifier()).whenComplete((entry, throwable) ->
+        {
+            if (throwable != null)
+            {
+                resolution.completeExceptionally(throwable);
+                return;
+            }
+
+            try
+            {
+                AudioTrack cached = entry == null ? null : cache.decode(entry);
+
+                if (cached == null)
+                {
+                    search(track, guildId, resolution, 1);
+                    return;
+                }
+
+                resolution.complete(cached);
+
+                if (entry.isStale())
+                {
+                    revalidate(track, guildId);
+                }
+            }
+            catch (Exception exception)
+            {
+                resolution.completeExceptionally(exception);
+            }
+        });
+        return future;
+    }
+
+    public SpotifyTrackCache getCache()
+    {
+        return cache;
+    }
+
+    /**
+     * Called with the guild and placeholder whenever a failed search is tried again.
+     */
+    public void setRetryListener(BiConsumer<Long, SpotifyAudioTrack> retryListener)
+    {
+        this.retryListener = retryListener;
+    }
+
+    /**
+     * Searches again for an entry that has been cached for a while, the old match keeps playing in the meantime.
+     */
+    private void revalidate(SpotifyAudioTrack track, long guildId)
+    {
+        CompletableFuture<AudioTrack> fresh = new CompletableFuture<>();
+        search(track, guildId, fresh, 1);
+
+        fresh.thenAccept(result ->
+        {
+            if (result == null) return;
+
+            synchronized (resolutions)
+            {
+                resolutions.put(track.getIdentifier(), fresh);
+            }
+        });
+    }
+
+    private void search(SpotifyAudioTrack track, long guildId, CompletableFuture<AudioTrack> future, int attempt)
+    {
+        try
+        {
+            load(track, guildId, future, attempt);
+        }
+        catch (Exception exception)
+        {
+            future.completeExceptionally(exception);
+        }
+    }
+
+    private void load(SpotifyAudioTrack track, long guildId, CompletableFuture<AudioTrack> future, int attempt)
+    {
+        loadScheduler.load(guildId, null, "ytsearch:" + track.getQuery(), LoadPriority.RESOLVE, new AudioLoadResultHandler()
+        {
+            @Override
+            public void trackLoaded(AudioTrack result)
+            {
+                complete(result);
+            }
+
+            @Override
+            public void playlistLoaded(AudioPlaylist playlist)
+            {
+                // prefer the top result that is closest in length, which skips most extended versions and covers
+                complete(playlist.getTracks().stream()
+                        .limit(CANDIDATES)
+                        .min(Comparator.comparingLong(result -> Math.abs(result.getDuration() - track.getDuration())))
+                        .orElse(null));
+            }
+
+            private void complete(AudioTrack result)
+            {
+                if (result != null)
+                {
+                    cache.put(track.getIdentifier(), result);
+                }
+                future.complete(result);
+            }
+
+            @Override
+            public void noMatches()
+            {
+                future.complete(null);
+            }
+
+            @Override
+            public void loadFailed(FriendlyException exception)
+            {
+                if (attempt >= MAX_ATTEMPTS)
+                {
+                    future.completeExceptionally(exception);
+                    return;
+                }
+
+                retryListener.accept(guildId, track);
+                CompletableFuture.delayedExecutor(BACKOFF_MILLIS << (attempt - 1), TimeUnit.MILLISECONDS)
+                        .execute(() -> search(track, guildId, future, attempt + 1));
+            }
+        });
+    }
+
+    @Override
+    public String getSourceName()
+    {
+        return "spotify";
+    }
+
+    @Override
+    public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference)
+    {
+        return null;
+    }
+
+    @Override
+    public boolean isTrackEncodable(AudioTrack track)
+    {
+        return true;
+    }
+
+    @Override
+    public void encodeTrack(AudioTrack track, DataOutput output) throws IOException
+    {
+        DataFormatTools.writeNullableText(output, ((SpotifyAudioTrack) track).getIsrc());
+    }
+
+    @Override
+    public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input) throws IOException
+    {
+        return new SpotifyAudioTrack(trackInfo, DataFormatTools.readNullableText(input), this);
+    }
+
+    @Override
+    public void shutdown()
+    {
+        resolutions.clear();
+    }
+}
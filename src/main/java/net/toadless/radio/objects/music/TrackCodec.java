@@ -0,0 +1,119 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+import net.dv8tion.jda.api.entities.UserSnowflake;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts tracks to and from lavaplayer's message encoding.
+ * <p>
+ * Lists are stored as {@code [count]} followed by {@code [requester id][length][track bytes]} per track, so the
+ * requester survives the round trip without keeping a JDA user around.
+ */
+public class TrackCodec
+{
+    private final AudioPlayerManager manager;
+
+    public TrackCodec(AudioPlayerManager manager)
+    {
+        this.manager = manager;
+    }
+
+    public byte[] encode(@NotNull AudioTrack track) throws IOException
+    {
+        if (track instanceof ForwardingAudioTrack)
+        {
+            track = ((ForwardingAudioTrack) track).getSource(); // no source manager can encode the wrapper
+        }
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        MessageOutput output = new MessageOutput(stream);
+
+        manager.encodeTrack(output, track);
+        output.finish();
+
+        return stream.toByteArray();
+    }
+
+    public @Nullable AudioTrack decode(byte[] data) throws IOException
+    {
+        DecodedTrackHolder holder = manager.decodeTrack(new MessageInput(new ByteArrayInputStream(data)));
+        return holder == null ? null : holder.decodedTrack;
+    }
+
+    public @Nullable AudioTrack decode(byte[] data, long requester) throws IOException
+    {
+        AudioTrack track = decode(data);
+
+        if (track != null)
+        {
+            track.setUserData(requester == -1L ? null : UserSnowflake.fromId(requester));
+        }
+        return track;
+    }
+
+    public static long getRequester(@NotNull AudioTrack track)
+    {
+        UserSnowflake requester = track.getUserData(UserSnowflake.class);
+        return requester == null ? -1L : requester.getIdLong();
+    }
+
+    public static void writeEntry(@NotNull DataOutputStream output, long requester, byte[] encoded) throws IOException
+    {
+        output.writeLong(requester);
+        output.writeInt(encoded.length);
+        output.write(encoded);
+    }
+
+    public byte[] encodeAll(@NotNull List<AudioTrack> tracks) throws IOException
+    {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(stream);
+
+        output.writeInt(tracks.size());
+
+        for (AudioTrack track : tracks)
+        {
+            writeEntry(output, getRequester(track), encode(track));
+        }
+
+        output.flush();
+        return stream.toByteArray();
+    }
+
+    public @NotNull List<AudioTrack> decodeAll(byte[] data) throws IOException
+    {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+        int count = input.readInt();
+        List<AudioTrack> tracks = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            long requester = input.readLong();
+            byte[] encoded = new byte[input.readInt()];
+            input.readFully(encoded);
+
+            AudioTrack track = decode(encoded, requester);
+
+            if (track != null) // null if the source manager is no longer registered
+            {
+                tracks.add(track);
+            }
+        }
+
+        return tracks;
+    }
+}
@@ -0,0 +1,776 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An indexable track queue backed by an implicit treap.
+ * <p>
+ * Every node keeps the size and summed duration of its subtree, so insertion, removal, moving and
+ * "time until position N" are all O(log n). Streams and tracks of unknown length count as zero towards durations.
+ * <p>
+ * When created with a {@link TrackCodec}, entries past the head are held as encoded bytes and only decoded into an
+ * {@link AudioTrack} when they are read or move into the first {@link #MATERIALIZED_ENTRIES} positions. Entries
+ * inserted at or beyond the spill threshold are written to a memory-mapped {@link SpillFile} instead of the heap.
+ * <p>
+ * This class is not thread safe, callers synchronize on the queue instance.
+ */
+public class TrackQueue implements Iterable<AudioTrack>
+{
+    public static final int MATERIALIZED_ENTRIES = 2;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrackQueue.class);
+
+    private final TrackCodec codec;
+    private final int spillThreshold;
+
+    private SpillFile spillFile;
+    private Node root;
+
+    public TrackQueue()
+    {
+        this(null, Integer.MAX_VALUE);
+    }
+
+    public TrackQueue(@Nullable TrackCodec codec, int spillThreshold)
+    {
+        this.codec = codec;
+        this.spillThreshold = spillThreshold <= 0 ? Integer.MAX_VALUE : spillThreshold;
+    }
+
+    public int size()
+    {
+        return size(root);
+    }
+
+    public boolean isEmpty()
+    {
+        return root == null;
+    }
+
+    public long getDuration()
+    {
+        return total(root);
+    }
+
+    /**
+     * @return the summed duration of every track before {@code index}, ie. the time until that track starts playing
+     * once the current track has finished.
+     */
+    public long getDurationBefore(int index)
+    {
+        checkPositionIndex(index);
+
+        long duration = 0;
+        Node node = root;
+
+        while (node != null)
+        {
+            int leftSize = size(node.left);
+
+            if (index <= leftSize)
+            {
+                node = node.left;
+            }
+            else
+            {
+                duration += total(node.left) + node.duration;
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return duration;
+    }
+
+    public void offer(@NotNull AudioTrack track)
+    {
+        root = merge(root, createNode(track, size()));
+    }
+
+    /**
+     * Appends every track as one subtree, so the tree is only joined once.
+     */
+    public void offerAll(@NotNull List<AudioTrack> tracks)
+    {
+        Node appended = null;
+        int index = size();
+
+        for (AudioTrack track : tracks)
+        {
+            appended = merge(appended, createNode(track, index++));
+        }
+
+        root = merge(root, appended);
+    }
+
+    public void addFirst(@NotNull AudioTrack track)
+    {
+        root = merge(createNode(track, 0), root);
+        if (MATERIALIZED_ENTRIES < size()) demote(nodeAt(MATERIALIZED_ENTRIES), MATERIALIZED_ENTRIES);
+    }
+
+    public void add(int index, @NotNull AudioTrack track)
+    {
+        checkPositionIndex(index);
+
+        Node[] parts = split(root, index);
+        root = merge(merge(parts[0], createNode(track, index)), parts[1]);
+
+        if (index < MATERIALIZED_ENTRIES && MATERIALIZED_ENTRIES < size()) demote(nodeAt(MATERIALIZED_ENTRIES), MATERIALIZED_ENTRIES);
+    }
+
+    public @Nullable AudioTrack peek()
+    {
+        if (root == null) return null;
+
+        Node node = root;
+        while (node.left != null) node = node.left;
+        return materialize(node);
+    }
+
+    public @Nullable AudioTrack poll()
+    {
+        if (root == null) return null;
+
+        AudioTrack track = remove(0);
+
+        // decode the upcoming entries ahead of time so starting the next track never waits on it
+        for (int i = 0; i < Math.min(MATERIALIZED_ENTRIES, size()); i++)
+        {
+            materialize(nodeAt(i));
+        }
+        return track;
+    }
+
+    public @NotNull AudioTrack get(int index)
+    {
+        return read(nodeAt(index));
+    }
+
+    public @NotNull AudioTrack set(int index, @NotNull AudioTrack track)
+    {
+        checkElementIndex(index);
+
+        Node replacement = createNode(track, index);
+        Node old = set(root, index, replacement);
+
+        AudioTrack previous = read(old);
+        release(old);
+        return previous;
+    }
+
+    public @NotNull AudioTrack remove(int index)
+    {
+        checkElementIndex(index);
+
+        Node[] left = split(root, index);
+        Node[] right = split(left[1], 1);
+        root = merge(left[0], right[1]);
+
+        AudioTrack track = read(right[0]);
+        release(right[0]);
+        return track;
+    }
+
+    public void move(int from, int to)
+    {
+        checkElementIndex(from);
+        checkElementIndex(to);
+
+        if (from == to) return;
+
+        Node[] left = split(root, from);
+        Node[] right = split(left[1], 1);
+        Node moved = right[0];
+        Node rest = merge(left[0], right[1]);
+
+        Node[] parts = split(rest, to);
+        root = merge(merge(parts[0], moved), parts[1]);
+
+        // the head may have shifted, and the moved entry may have left it or joined it
+        for (int i = 0; i <= Math.min(MATERIALIZED_ENTRIES, size() - 1); i++)
+        {
+            settle(i);
+        }
+        settle(to);
+    }
+
+    /**
+     * Shuffles the queue in place using Fisher-Yates, swapping the tracks held by existing nodes rather than
+     * rebuilding the tree. Entries keep how they are stored, except for the ones moving into or out of the head.
+     */
+    public void shuffle()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (int i = size() - 1; i > 0; i--)
+        {
+            int j = random.nextInt(i + 1);
+            Node node = nodeAt(i);
+
+            if (i != j)
+            {
+                node.swap(nodeAt(j));
+            }
+
+            if (i >= MATERIALIZED_ENTRIES)
+            {
+                demote(node, i); // position i is final from here on
+            }
+        }
+
+        recalculate(root);
+
+        for (int i = 0; i < Math.min(MATERIALIZED_ENTRIES, size()); i++)
+        {
+            materialize(nodeAt(i));
+        }
+    }
+
+    public void clear()
+    {
+        root = null;
+
+        if (spillFile != null)
+        {
+            spillFile.close();
+            spillFile = null;
+        }
+    }
+
+    /**
+     * Writes the queue in the {@link TrackCodec} list format without decoding encoded entries.
+     */
+    public byte[] encode() throws IOException
+    {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(stream);
+
+        output.writeInt(size());
+
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+
+        while (node != null || !stack.isEmpty())
+        {
+            while (node != null)
+            {
+                stack.push(node);
+                node = node.left;
+            }
+
+            node = stack.pop();
+            TrackCodec.writeEntry(output, node.requester, encoded(node));
+            node = node.right;
+        }
+
+        output.flush();
+        return stream.toByteArray();
+    }
+
+    public int getMaterializedCount()
+    {
+        int count = 0;
+        for (Node node : nodes()) if (node.track != null) count++;
+        return count;
+    }
+
+    public int getSpilledCount()
+    {
+        int count = 0;
+        for (Node node : nodes()) if (node.spillAddress != -1) count++;
+        return count;
+    }
+
+    public @NotNull List<AudioTrack> subList(int from, int to)
+    {
+        int size = size();
+        if (from < 0 || to > size || from > to)
+        {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for size " + size);
+        }
+
+        List<AudioTrack> tracks = new ArrayList<>(to - from);
+        Iterator<AudioTrack> iterator = iterator(from);
+
+        for (int i = from; i < to; i++)
+        {
+            tracks.add(iterator.next());
+        }
+        return tracks;
+    }
+
+    @Override
+    public @NotNull Iterator<AudioTrack> iterator()
+    {
+        return iterator(0);
+    }
+
+    public @NotNull Iterator<AudioTrack> iterator(int from)
+    {
+        checkPositionIndex(from);
+
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+
+        // seed the stack with the path to the starting node so the walk begins mid-tree
+        while (node != null)
+        {
+            int leftSize = size(node.left);
+
+            if (from <= leftSize)
+            {
+                stack.push(node);
+                node = node.left;
+            }
+            else
+            {
+                from -= leftSize + 1;
+                node = node.right;
+            }
+        }
+
+        return new Iterator<>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public AudioTrack next()
+            {
+                if (stack.isEmpty()) throw new NoSuchElementException();
+
+                Node current = stack.pop();
+                Node next = current.right;
+
+                while (next != null)
+                {
+                    stack.push(next);
+                    next = next.left;
+                }
+                return read(current);
+            }
+        };
+    }
+
+    private List<Node> nodes()
+    {
+        List<Node> nodes = new ArrayList<>(size());
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+
+        while (node != null || !stack.isEmpty())
+        {
+            while (node != null)
+            {
+                stack.push(node);
+                node = node.left;
+            }
+
+            node = stack.pop();
+            nodes.add(node);
+            node = node.right;
+        }
+        return nodes;
+    }
+
+    private Node createNode(AudioTrack track, int index)
+    {
+        Node node = new Node(durationOf(track), TrackCodec.getRequester(track));
+
+        if (codec == null || index < MATERIALIZED_ENTRIES)
+        {
+            node.track = track;
+            return node;
+        }
+
+        try
+        {
+            byte[] encoded = codec.encode(track);
+
+            if (index >= spillThreshold && spill(node, encoded))
+            {
+                return node;
+            }
+
+            node.data = encoded;
+        }
+        catch (IOException exception)
+        {
+            LOGGER.warn("Failed to encode queued track, keeping it in memory", exception);
+            node.track = track;
+        }
+        return node;
+    }
+
+    private boolean spill(Node node, byte[] encoded) throws IOException
+    {
+        if (spillFile == null)
+        {
+            spillFile = new SpillFile();
+        }
+
+        long address = spillFile.write(encoded);
+
+        if (address == -1)
+        {
+            return false;
+        }
+
+        node.spillAddress = address;
+        node.spillLength = encoded.length;
+        return true;
+    }
+
+    private byte[] encoded(Node node) throws IOException
+    {
+        if (node.track != null)
+        {
+            if (codec == null) throw new IOException("This queue has no codec to encode tracks with");
+            return codec.encode(node.track);
+        }
+        if (node.data != null) return node.data;
+        return spillFile.read(node.spillAddress, node.spillLength);
+    }
+
+    private AudioTrack read(Node node)
+    {
+        if (node.track != null)
+        {
+            return node.track;
+        }
+
+        try
+        {
+            AudioTrack track = codec.decode(encoded(node), node.requester);
+
+            if (track == null)
+            {
+                throw new IllegalStateException("Queued track could not be decoded");
+            }
+            return track;
+        }
+        catch (IOException exception)
+        {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private AudioTrack materialize(Node node)
+    {
+        if (node.track == null)
+        {
+            AudioTrack track = read(node);
+            release(node);
+            node.track = track;
+        }
+        return node.track;
+    }
+
+    /**
+     * Materializes the entry if it is part of the head of the queue, and encodes it otherwise.
+     */
+    private void settle(int index)
+    {
+        if (index < MATERIALIZED_ENTRIES)
+        {
+            materialize(nodeAt(index));
+        }
+        else
+        {
+            demote(nodeAt(index), index);
+        }
+    }
+
+    /**
+     * Encodes an entry that is no longer part of the materialized head, it is spilled if it ended up past the
+     * spill threshold so moving entries around never grows the heap.
+     */
+    private void demote(Node node, int index)
+    {
+        if (codec == null || node.track == null)
+        {
+            return;
+        }
+
+        try
+        {
+            byte[] encoded = codec.encode(node.track);
+
+            if (index < spillThreshold || !spill(node, encoded))
+            {
+                node.data = encoded;
+            }
+            node.track = null;
+        }
+        catch (IOException exception)
+        {
+            LOGGER.warn("Failed to encode queued track, keeping it in memory", exception);
+        }
+    }
+
+    private void release(Node node)
+    {
+        boolean spilled = node.spillAddress != -1;
+
+        node.data = null;
+        node.spillAddress = -1;
+
+        if (spilled && spillFile != null)
+        {
+            spillFile.release(node.spillLength);
+
+            if (spillFile.isFragmented())
+            {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Copies the live records into a new spill file, so a queue that keeps cycling through spilled entries (eg. when
+     * repeating the queue) doesn't grow the file forever. The old file stays in use if the copy fails.
+     */
+    private void compact()
+    {
+        List<Node> spilled = new ArrayList<>();
+
+        for (Node node : nodes())
+        {
+            if (node.spillAddress != -1) spilled.add(node);
+        }
+
+        long[] addresses = new long[spilled.size()];
+        SpillFile compacted = null;
+
+        try
+        {
+            compacted = new SpillFile();
+
+            for (int i = 0; i < addresses.length; i++)
+            {
+                Node node = spilled.get(i);
+                addresses[i] = compacted.write(spillFile.read(node.spillAddress, node.spillLength));
+            }
+        }
+        catch (IOException exception)
+        {
+            LOGGER.warn("Failed to compact the spill file", exception);
+            if (compacted != null) compacted.close();
+            return;
+        }
+
+        for (int i = 0; i < addresses.length; i++)
+        {
+            spilled.get(i).spillAddress = addresses[i];
+        }
+
+        spillFile.close();
+        spillFile = compacted;
+    }
+
+    private Node nodeAt(int index)
+    {
+        checkElementIndex(index);
+
+        Node node = root;
+        while (true)
+        {
+            int leftSize = size(node.left);
+
+            if (index < leftSize)
+            {
+                node = node.left;
+            }
+            else if (index > leftSize)
+            {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+            else
+            {
+                return node;
+            }
+        }
+    }
+
+    private static Node set(Node node, int index, Node replacement)
+    {
+        int leftSize = size(node.left);
+        Node old;
+
+        if (index < leftSize)
+        {
+            old = set(node.left, index, replacement);
+        }
+        else if (index > leftSize)
+        {
+            old = set(node.right, index - leftSize - 1, replacement);
+        }
+        else
+        {
+            old = new Node(node.duration, node.requester);
+            old.swap(node);
+            node.swap(replacement);
+        }
+
+        node.update();
+        return old;
+    }
+
+    private static long recalculate(Node node)
+    {
+        if (node == null) return 0;
+
+        node.total = recalculate(node.left) + node.duration + recalculate(node.right);
+        return node.total;
+    }
+
+    private static Node[] split(Node node, int index)
+    {
+        if (node == null) return new Node[]{null, null};
+
+        int leftSize = size(node.left);
+
+        if (index <= leftSize)
+        {
+            Node[] parts = split(node.left, index);
+            node.left = parts[1];
+            node.update();
+            return new Node[]{parts[0], node};
+        }
+
+        Node[] parts = split(node.right, index - leftSize - 1);
+        node.right = parts[0];
+        node.update();
+        return new Node[]{node, parts[1]};
+    }
+
+    private static Node merge(Node left, Node right)
+    {
+        if (left == null) return right;
+        if (right == null) return left;
+
+        if (left.priority > right.priority)
+        {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static int size(Node node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    private static long total(Node node)
+    {
+        return node == null ? 0 : node.total;
+    }
+
+    private static long durationOf(AudioTrack track)
+    {
+        long duration = track.getDuration();
+        return track.getInfo().isStream || duration == Long.MAX_VALUE || duration < 0 ? 0 : duration;
+    }
+
+    private void checkElementIndex(int index)
+    {
+        if (index < 0 || index >= size())
+        {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+    }
+
+    private void checkPositionIndex(int index)
+    {
+        if (index < 0 || index > size())
+        {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+    }
+
+    private static class Node
+    {
+        private final int priority;
+
+        // exactly one of track, data or spillAddress holds the entry
+        private AudioTrack track;
+        private byte[] data;
+        private long spillAddress;
+        private int spillLength;
+
+        private long duration;
+        private long requester;
+        private Node left;
+        private Node right;
+        private int size;
+        private long total;
+
+        private Node(long duration, long requester)
+        {
+            this.priority = ThreadLocalRandom.current().nextInt();
+            this.spillAddress = -1;
+            this.duration = duration;
+            this.requester = requester;
+            this.size = 1;
+            this.total = duration;
+        }
+
+        /**
+         * Exchanges the entries of two nodes, leaving the tree structure untouched.
+         */
+        private void swap(Node other)
+        {
+            AudioTrack track = this.track;
+            byte[] data = this.data;
+            long spillAddress = this.spillAddress;
+            int spillLength = this.spillLength;
+            long duration = this.duration;
+            long requester = this.requester;
+
+            this.track = other.track;
+            this.data = other.data;
+            this.spillAddress = other.spillAddress;
+            this.spillLength = other.spillLength;
+            this.duration = other.duration;
+            this.requester = other.requester;
+
+            other.track = track;
+            other.data = data;
+            other.spillAddress = spillAddress;
+            other.spillLength = spillLength;
+            other.duration = duration;
+            other.requester = requester;
+        }
+
+        private void update()
+        {
+            size = 1 + TrackQueue.size(left) + TrackQueue.size(right);
+            total = TrackQueue.total(left) + duration + TrackQueue.total(right);
+        }
+    }
+}
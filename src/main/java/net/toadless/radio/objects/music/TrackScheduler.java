@@ -5,68 +5,370 @@ import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.UserSnowflake;
 import net.toadless.radio.Constants;
+import net.toadless.radio.modules.LyricsModule;
+import net.toadless.radio.objects.node.NodeManager;
+import net.toadless.radio.util.CommandUtils;
 import net.toadless.radio.util.StringUtils;
+import org.jetbrains.annotations.Nullable;
 
 import static net.toadless.radio.modules.MusicModule.BASS_BOOST;
 
+/**
+ * Plays the queue on one of two players. While a track is close to ending the next one is started paused on the
+ * standby player, so its stream is resolved and buffered by the time the players are swapped.
+ */
 public class TrackScheduler extends AudioEventAdapter
 {
-    private final AudioPlayer player;
-    private final LinkedList<AudioTrack> queue;
-    private final LinkedList<AudioTrack> history;
+    private static final int RESOLVE_AHEAD = 3;
+    private static final int MAX_HISTORY_HEAD = 64; // past this, rewriting the history is cheaper than repeating the head
+    private static final int MAX_QUEUE_OFFSET = 256;
+
+    private final TrackQueue queue;
+    private final TrackQueue history;
     private final GuildMusicManager handler;
+    private final TransitionMetrics metrics;
+    private final TrackCodec codec;
+    private final BroadcastManager broadcasts; // null if broadcasting is disabled
+    private final NodeManager nodes; // null if playback happens in this process
+    private final LyricsModule lyrics;
 
     private final EqualizerFactory equalizer;
+    private final AtomicBoolean dirty;
+    private boolean queueChanged = true; // guarded by the queue lock, along with consumed
+    private int consumed; // entries polled off the head since the queue was last persisted in full
+    private boolean historyChanged = true; // guarded by the history lock, along with pushed
+    private int pushed; // entries added to the front of the history since it was last persisted in full
+
+    private volatile AudioPlayer player;
+    private AudioPlayer standby; // guarded by the queue lock, as are the prepared fields
+    private AudioTrack prepared;
+    private AudioTrack preparedSource;
+
+    private volatile long gapStart;
+    private volatile boolean gapPrefetched;
 
     private RepeatMode repeatMode;
     private float bassBoostPercentage;
 
-    public TrackScheduler(AudioPlayer player, GuildMusicManager handler)
+    public TrackScheduler(AudioPlayer player, AudioPlayer standby, GuildMusicManager handler, TrackCodec codec, int spillThreshold, TransitionMetrics metrics, BroadcastManager broadcasts, NodeManager nodes, LyricsModule lyrics)
     {
         this.player = player;
-        this.queue = new LinkedList<>();
-        this.history = new LinkedList<>();
+        this.standby = standby;
+        this.queue = new TrackQueue(codec, spillThreshold);
+        this.history = new TrackQueue(codec, spillThreshold);
         this.handler = handler;
+        this.metrics = metrics;
+        this.codec = codec;
+        this.broadcasts = broadcasts;
+        this.nodes = nodes;
+        this.lyrics = lyrics;
         this.equalizer = new EqualizerFactory();
 
         this.repeatMode = RepeatMode.OFF;
 
-        this.player.setFilterFactory(equalizer);
-        this.player.setFrameBufferDuration(500); // prevent bass boost taking time to take effect
+        for (AudioPlayer audioPlayer : new AudioPlayer[]{player, standby})
+        {
+            // no filter factory until bass boost is enabled, so opus frames can pass straight through
+            audioPlayer.setFilterFactory(null);
+            audioPlayer.setFrameBufferDuration(500); // prevent bass boost taking time to take effect
+            audioPlayer.addListener(this);
+        }
 
         this.bassBoostPercentage = 0.00f;
+        this.dirty = new AtomicBoolean(true);
+    }
+
+    public AudioPlayer getPlayer()
+    {
+        return player;
+    }
+
+    /**
+     * Called by the send handler for every frame, records the gap once the first frame after a transition arrives.
+     */
+    public boolean provide(MutableAudioFrame frame)
+    {
+        if (!player.provide(frame))
+        {
+            return false;
+        }
+
+        long start = gapStart;
+
+        if (start != 0L)
+        {
+            gapStart = 0L;
+            metrics.record(System.nanoTime() - start, gapPrefetched);
+        }
+        return true;
     }
 
-    public void queue(AudioTrack track, User user)
+    /**
+     * Starts buffering the head of the queue on the standby player once the current track has less than
+     * {@code window} milliseconds left, and drops a prepared track that is no longer next.
+     */
+    public void prefetch(long window)
     {
-        track.setUserData(user);
-        if (!player.startTrack(track, true))
+        AudioTrack current = player.getPlayingTrack();
+
+        synchronized (queue)
+        {
+            AudioTrack next = repeatMode == RepeatMode.SONG ? null : queue.peek();
+
+            if (prepared != null && preparedSource == next)
+            {
+                return;
+            }
+
+            discardPrepared();
+
+            if (next == null || current == null || current.getInfo().isStream || current.getDuration() - current.getPosition() > window)
+            {
+                return;
+            }
+
+            prepared = wrap(next.makeClone());
+            preparedSource = next;
+
+            standby.setPaused(true);
+            standby.setVolume(player.getVolume());
+            standby.setFilterFactory(hasActiveFilters() ? equalizer : null);
+            standby.startTrack(prepared, false);
+        }
+    }
+
+    public void destroy()
+    {
+        synchronized (queue)
+        {
+            discardPrepared();
+        }
+        player.destroy();
+        standby.destroy();
+    }
+
+    public void queue(AudioTrack track, UserSnowflake user)
+    {
+        track.setUserData(UserSnowflake.fromId(user.getIdLong())); // don't keep the full user alive in the queue
+        if (!player.startTrack(wrap(track), true))
         {
             synchronized (queue)
             {
                 queue.offer(track);
+                queueChanged = true;
             }
         }
+        markDirty();
+        resolveAhead();
+    }
+
+    /**
+     * Queues a whole playlist under a single lock acquisition, starting at most one track.
+     *
+     * @return how many tracks were added to the queue, excluding one that started playing immediately
+     */
+    public int queueAll(List<AudioTrack> tracks, UserSnowflake user)
+    {
+        if (tracks.isEmpty())
+        {
+            return 0;
+        }
+
+        UserSnowflake requester = UserSnowflake.fromId(user.getIdLong());
+        tracks.forEach(track -> track.setUserData(requester));
+
+        List<AudioTrack> toQueue = player.startTrack(wrap(tracks.get(0)), true) ? tracks.subList(1, tracks.size()) : tracks;
+
+        synchronized (queue)
+        {
+            queue.offerAll(toQueue);
+            queueChanged = true;
+        }
+
+        markDirty();
+        resolveAhead();
+        return toQueue.size();
     }
 
-    public List<AudioTrack> getQueue()
+    public void restore(AudioTrack current, List<AudioTrack> tracks, List<AudioTrack> previous, RepeatMode repeatMode)
+    {
+        synchronized (queue)
+        {
+            queue.clear();
+            queue.offerAll(tracks);
+            queueChanged = true;
+        }
+
+        synchronized (history)
+        {
+            history.clear();
+            history.offerAll(previous);
+            historyChanged = true;
+        }
+
+        this.repeatMode = repeatMode;
+
+        if (current != null)
+        {
+            player.startTrack(wrap(current), false);
+        }
+        else
+        {
+            synchronized (queue)
+            {
+                player.startTrack(wrap(queue.poll()), false);
+            }
+        }
+
+        markDirty();
+    }
+
+    public TrackQueue getQueue()
     {
         return queue;
     }
 
+    public int getQueueSize()
+    {
+        synchronized (queue)
+        {
+            return queue.size();
+        }
+    }
+
+    public AudioTrack getTrack(int index)
+    {
+        synchronized (queue)
+        {
+            return queue.get(index);
+        }
+    }
+
+    /**
+     * @return the removed track, or null if there is no track at the index
+     */
+    public @Nullable AudioTrack removeTrack(int index)
+    {
+        AudioTrack track;
+        synchronized (queue)
+        {
+            if (index < 0 || index >= queue.size())
+            {
+                return null;
+            }
+            track = queue.remove(index);
+            queueChanged = true;
+        }
+        markDirty();
+        return track;
+    }
+
+    /**
+     * @return false if either index is outside the queue, in which case nothing is moved
+     */
+    public boolean moveTrack(int from, int to)
+    {
+        synchronized (queue)
+        {
+            if (from < 0 || to < 0 || from >= queue.size() || to >= queue.size())
+            {
+                return false;
+            }
+            queue.move(from, to);
+            queueChanged = true;
+        }
+        markDirty();
+        return true;
+    }
+
+    public List<AudioTrack> getTracks(int from, int to)
+    {
+        synchronized (queue)
+        {
+            return queue.subList(from, to);
+        }
+    }
+
+    /**
+     * Captures the queue and history for persistence. Tracks moving from the queue through playback into the
+     * history don't change either list otherwise, so unless something else changed only that movement is captured:
+     * how many entries to drop from the head of the last full queue, and the entries added to the history since.
+     *
+     * @param full whether to capture both lists in full regardless
+     */
+    public PersistedQueue capture(boolean full) throws IOException
+    {
+        synchronized (queue)
+        {
+            synchronized (history)
+            {
+                if (full || queueChanged || historyChanged || pushed > MAX_HISTORY_HEAD || consumed > MAX_QUEUE_OFFSET)
+                {
+                    PersistedQueue captured = new PersistedQueue(queue.encode(), history.encode(), 0, null);
+                    queueChanged = false;
+                    historyChanged = false;
+                    consumed = 0;
+                    pushed = 0;
+                    return captured;
+                }
+
+                byte[] historyHead = pushed == 0 ? null : codec.encodeAll(history.subList(0, pushed));
+                return new PersistedQueue(null, null, consumed, historyHead);
+            }
+        }
+    }
+
+    /**
+     * Makes the next {@link #capture(boolean)} a full one, for when writing the last one failed.
+     */
+    public void markQueueChanged()
+    {
+        synchronized (queue)
+        {
+            queueChanged = true;
+        }
+        markDirty();
+    }
+
+    public long getQueueDuration()
+    {
+        synchronized (queue)
+        {
+            return queue.getDuration();
+        }
+    }
+
+    public long getTimeUntil(int index)
+    {
+        long remaining = 0;
+        AudioTrack current = player.getPlayingTrack();
+
+        if (current != null && !current.getInfo().isStream)
+        {
+            remaining = Math.max(0, current.getDuration() - current.getPosition());
+        }
+
+        synchronized (queue)
+        {
+            return remaining + queue.getDurationBefore(index);
+        }
+    }
+
     public void bassBoost(float percentage)
     {
         this.bassBoostPercentage = percentage;
+        markDirty();
 
         final float multiplier = percentage / 100.00f;
 
@@ -74,42 +376,145 @@ public class TrackScheduler extends AudioEventAdapter
         {
             equalizer.setGain(i, BASS_BOOST[i] * multiplier);
         }
+
+        // hot swap the equalizer in or out, a null factory lets lavaplayer skip decoding entirely
+        player.setFilterFactory(hasActiveFilters() ? equalizer : null);
+    }
+
+    public boolean hasActiveFilters()
+    {
+        return this.bassBoostPercentage != 0.00f;
     }
 
     public void skipOne(boolean trackEnded, boolean force)
     {
-        if (!trackEnded) this.history.push(this.player.getPlayingTrack());
+        markDirty();
 
-        if (this.repeatMode == RepeatMode.SONG && !force)
+        if (!trackEnded) pushHistory(this.player.getPlayingTrack());
+
+        AudioTrack previous;
+
+        if (this.repeatMode == RepeatMode.SONG && !force && (previous = pollHistory()) != null)
         {
-            this.player.startTrack(this.history.poll().makeClone(), false);
+            this.player.startTrack(wrap(previous.makeClone()), false);
             return;
         }
 
-        if (this.repeatMode == RepeatMode.QUEUE)
+        if (this.repeatMode == RepeatMode.QUEUE && (previous = pollHistory()) != null)
         {
             synchronized (queue)
             {
-                queue.offer(this.history.poll().makeClone());
+                queue.offer(previous.makeClone());
+                queueChanged = true;
             }
         }
 
         synchronized (queue)
         {
-            player.startTrack(queue.poll(), false);
+            startNext();
         }
         player.setPaused(false);
     }
 
+    private void startNext()
+    {
+        AudioTrack next = queue.poll();
+
+        if (next == null)
+        {
+            gapStart = 0L; // nothing follows, so there is no gap to measure
+        }
+        else
+        {
+            consumed++;
+        }
+
+        if (next != null && next == preparedSource && standby.getPlayingTrack() == prepared)
+        {
+            AudioTrack started = prepared;
+            AudioPlayer previous = player;
+            player = standby;
+            standby = previous;
+            prepared = null;
+            preparedSource = null;
+            gapPrefetched = true;
+
+            player.setVolume(previous.getVolume());
+            player.setFilterFactory(hasActiveFilters() ? equalizer : null);
+            player.setPaused(false);
+            previous.stopTrack(); // the end event is ignored, the previous player is no longer active
+
+            onTrackStart(player, started); // the real start event was ignored while on standby
+            return;
+        }
+
+        discardPrepared();
+        gapPrefetched = false;
+        player.startTrack(wrap(next), false);
+    }
+
+    /**
+     * Live streams are played from a shared broadcast and everything else on an audio node if any are configured,
+     * otherwise the track is returned as is.
+     */
+    private AudioTrack wrap(AudioTrack track)
+    {
+        if (track instanceof SpotifyAudioTrack)
+        {
+            ((SpotifyAudioTrack) track).setGuildId(handler.getGuildId()); // a search it starts waits in this guild's lane
+        }
+
+        if (track == null || track instanceof ForwardingAudioTrack)
+        {
+            return track;
+        }
+
+        AudioTrack wrapped;
+
+        if (broadcasts != null && track.getInfo().isStream)
+        {
+            wrapped = new BroadcastAudioTrack(track, broadcasts);
+        }
+        else if (nodes != null)
+        {
+            wrapped = new RemoteAudioTrack(track, nodes, codec);
+        }
+        else
+        {
+            return track;
+        }
+
+        wrapped.setUserData(track.getUserData());
+        return wrapped;
+    }
+
+    private void discardPrepared()
+    {
+        if (prepared == null)
+        {
+            return;
+        }
+
+        prepared = null;
+        preparedSource = null;
+        standby.stopTrack();
+    }
+
     public boolean playPrevious()
     {
         if (!hasPrevious()) return false;
-        if (this.player.getPlayingTrack() != null) this.queue.addFirst(this.player.getPlayingTrack().makeClone());
+        markDirty();
 
-        synchronized (history)
+        if (this.player.getPlayingTrack() != null)
         {
-            player.startTrack(history.poll().makeClone(), false);
+            synchronized (queue)
+            {
+                this.queue.addFirst(this.player.getPlayingTrack().makeClone());
+                queueChanged = true;
+            }
         }
+
+        player.startTrack(wrap(pollHistory().makeClone()), false);
         player.setPaused(false);
 
         return true;
@@ -118,7 +523,11 @@ public class TrackScheduler extends AudioEventAdapter
     @Override
     public void onTrackEnd(AudioPlayer player, AudioTrack track, AudioTrackEndReason endReason)
     {
-        this.history.push(track);
+        if (player != this.player) return; // standby player
+
+        if (endReason == AudioTrackEndReason.FINISHED) gapStart = System.nanoTime();
+
+        pushHistory(track);
 
         if (endReason.mayStartNext) skipOne(true, false);
     }
@@ -126,6 +535,11 @@ public class TrackScheduler extends AudioEventAdapter
     @Override
     public void onTrackStart(AudioPlayer player, AudioTrack track)
     {
+        if (player != this.player) return; // standby player
+
+        resolveAhead();
+        lyrics.prefetch(handler.getGuildId(), track.getInfo().title);
+
         Duration length = Duration.between(LocalDateTime.now(), LocalDateTime.now().plusSeconds(track.getDuration() / 1000));
         Duration passed = Duration.between(LocalDateTime.now(), LocalDateTime.now().plusSeconds(track.getPosition() / 1000));
 
@@ -138,7 +552,7 @@ public class TrackScheduler extends AudioEventAdapter
                                     "\n**Author**: " + track.getInfo().author +
                                     "\n**Position**: " + StringUtils.parseDuration(passed) +
                                     "\n**Length**: " + StringUtils.parseDuration(length) +
-                                    "\n**Requested by**: " + track.getUserData(User.class).getAsMention())
+                                    "\n**Requested by**: " + CommandUtils.formatRequester(track))
                     .setColor(Constants.EMBED_COLOUR)
                     .setTimestamp(Instant.now())
                     .build());
@@ -148,6 +562,8 @@ public class TrackScheduler extends AudioEventAdapter
     @Override
     public void onTrackStuck(AudioPlayer player, AudioTrack track, long thresholdMs)
     {
+        if (player != this.player) return; // standby player
+
         if (handler != null && handler.getChannel() != null)
         {
             handler.getChannel().sendMessageEmbeds(new EmbedBuilder()
@@ -159,24 +575,113 @@ public class TrackScheduler extends AudioEventAdapter
         }
     }
 
+    /**
+     * Starts searching for spotify placeholders that are about to play, including one that is playing already because
+     * it started straight away.
+     */
+    private void resolveAhead()
+    {
+        List<AudioTrack> upcoming;
+
+        synchronized (queue)
+        {
+            upcoming = queue.subList(0, Math.min(RESOLVE_AHEAD, queue.size()));
+        }
+
+        AudioTrack playing = player.getPlayingTrack();
+
+        if (playing instanceof SpotifyAudioTrack)
+        {
+            resolve((SpotifyAudioTrack) playing);
+        }
+
+        for (AudioTrack track : upcoming)
+        {
+            if (track instanceof SpotifyAudioTrack)
+            {
+                resolve((SpotifyAudioTrack) track);
+            }
+        }
+    }
+
+    private void resolve(SpotifyAudioTrack track)
+    {
+        track.resolve(handler.getGuildId()).whenComplete((resolved, throwable) -> handler.resolved(track, resolved != null && throwable == null));
+    }
+
+    private void pushHistory(AudioTrack track)
+    {
+        if (track == null) return;
+
+        synchronized (history)
+        {
+            history.addFirst(track);
+            pushed++;
+        }
+    }
+
+    private AudioTrack pollHistory()
+    {
+        synchronized (history)
+        {
+            AudioTrack track = history.poll();
+
+            if (track != null && pushed > 0)
+            {
+                pushed--;
+            }
+            else if (track != null)
+            {
+                historyChanged = true;
+            }
+            return track;
+        }
+    }
+
     public boolean hasNext()
     {
-        return queue.peek() != null;
+        synchronized (queue)
+        {
+            return !queue.isEmpty();
+        }
     }
 
     public boolean hasPrevious()
     {
-        return history.peek() != null;
+        synchronized (history)
+        {
+            return !history.isEmpty();
+        }
     }
 
     public void clear()
     {
-        queue.clear();
+        markDirty();
+        synchronized (queue)
+        {
+            queue.clear();
+            queueChanged = true;
+        }
+    }
+
+    public void clearHistory()
+    {
+        markDirty();
+        synchronized (history)
+        {
+            history.clear();
+            historyChanged = true;
+        }
     }
 
     public void shuffle()
     {
-        Collections.shuffle(queue);
+        markDirty();
+        synchronized (queue)
+        {
+            queue.shuffle();
+            queueChanged = true;
+        }
     }
 
     public RepeatMode getRepeatMode()
@@ -187,10 +692,77 @@ public class TrackScheduler extends AudioEventAdapter
     public void setRepeatMode(RepeatMode repeatMode)
     {
         this.repeatMode = repeatMode;
+        markDirty();
     }
 
     public float getBassBoostPercentage()
     {
         return this.bassBoostPercentage;
     }
+
+    public void markDirty()
+    {
+        this.dirty.set(true);
+    }
+
+    /**
+     * Clears the dirty flag, changes made after this call mark the scheduler dirty again.
+     *
+     * @return whether anything besides the playback position changed since the last call
+     */
+    public boolean clearDirty()
+    {
+        return this.dirty.getAndSet(false);
+    }
+
+    /**
+     * The queue and history as captured for persistence, either both lists in full or only the movement between them
+     * since the last full capture.
+     */
+    public static final class PersistedQueue
+    {
+        private final byte[] queue;
+        private final byte[] history;
+        private final int queueOffset;
+        private final byte[] historyHead;
+
+        private PersistedQueue(byte[] queue, byte[] history, int queueOffset, byte[] historyHead)
+        {
+            this.queue = queue;
+            this.history = history;
+            this.queueOffset = queueOffset;
+            this.historyHead = historyHead;
+        }
+
+        public boolean isFull()
+        {
+            return queue != null;
+        }
+
+        public byte[] getQueue()
+        {
+            return queue;
+        }
+
+        public byte[] getHistory()
+        {
+            return history;
+        }
+
+        /**
+         * @return how many entries to skip at the head of the last full queue
+         */
+        public int getQueueOffset()
+        {
+            return queueOffset;
+        }
+
+        /**
+         * @return the entries to put in front of the last full history, null if there are none
+         */
+        public byte[] getHistoryHead()
+        {
+            return historyHead;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package net.toadless.radio.objects.music;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks the silence between a track finishing and the first frame of the next one, across all players.
+ */
+public class TransitionMetrics
+{
+    private final LongAdder transitions = new LongAdder();
+    private final LongAdder prefetchedTransitions = new LongAdder();
+    private final LongAdder totalGap = new LongAdder();
+    private final AtomicLong maxGap = new AtomicLong();
+
+    public void record(long gapNanos, boolean prefetched)
+    {
+        transitions.increment();
+        totalGap.add(gapNanos);
+        maxGap.accumulateAndGet(gapNanos, Math::max);
+
+        if (prefetched)
+        {
+            prefetchedTransitions.increment();
+        }
+    }
+
+    public long getTransitions()
+    {
+        return transitions.sum();
+    }
+
+    public long getPrefetchedTransitions()
+    {
+        return prefetchedTransitions.sum();
+    }
+
+    public long getAverageGapMillis()
+    {
+        long count = transitions.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalGap.sum() / count);
+    }
+
+    public long getMaxGapMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(maxGap.get());
+    }
+}
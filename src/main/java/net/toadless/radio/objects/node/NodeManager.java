@@ -0,0 +1,71 @@
+package net.toadless.radio.objects.node;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Places players on the least loaded audio node and keeps reconnecting to nodes that went away.
+ */
+public class NodeManager
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(NodeManager.class);
+
+    private final List<RemoteNode> nodes;
+    private final AtomicLong sessionIds;
+    private final String secret;
+
+    public NodeManager(List<String> addresses, String secret)
+    {
+        this.secret = secret;
+        this.nodes = addresses.stream().map(address -> new RemoteNode(this, address)).collect(Collectors.toUnmodifiableList());
+        this.sessionIds = new AtomicLong();
+    }
+
+    public void connect()
+    {
+        for (RemoteNode node : nodes)
+        {
+            if (node.isAvailable()) continue;
+
+            try
+            {
+                node.connect();
+            }
+            catch (Exception exception)
+            {
+                LOGGER.debug("Could not connect to audio node " + node.getAddress(), exception);
+            }
+        }
+    }
+
+    /**
+     * @return the available node with the lowest penalty, or null if every node is down
+     */
+    public RemoteNode getBestNode()
+    {
+        return nodes.stream()
+                .filter(RemoteNode::isAvailable)
+                .min(Comparator.comparingDouble(RemoteNode::getPenalty))
+                .orElse(null);
+    }
+
+    public List<RemoteNode> getNodes()
+    {
+        return nodes;
+    }
+
+    String getSecret()
+    {
+        return secret;
+    }
+
+    long nextSessionId()
+    {
+        return sessionIds.incrementAndGet();
+    }
+}
@@ -0,0 +1,106 @@
+package net.toadless.radio.objects.node;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * The wire format between Radio and its audio nodes.
+ * <p>
+ * Every message is {@code [int length][byte opcode][payload]}, where the length covers the opcode and payload.
+ * Radio sends {@link #PLAY} with a lavaplayer encoded track and hands out frame credits, the node only sends as
+ * many opus frames as it has credits for, so a paused or slow session never blocks the others on the connection.
+ * A seek starts a new generation: both sides reset the credit window, and frames tagged with an older generation are
+ * dropped instead of being played at the new position.
+ * <p>
+ * A connection starts with the node sending {@link #HELLO} with a random nonce, Radio has to answer with {@link #AUTH}
+ * carrying the nonce signed with the shared secret before anything else is accepted.
+ */
+public class NodeProtocol
+{
+    public static final int DEFAULT_PORT = 2334;
+    public static final int STATS_INTERVAL_SECONDS = 5;
+    public static final int MAX_MESSAGE_LENGTH = 1 << 20;
+    public static final int NONCE_LENGTH = 32;
+    public static final int HANDSHAKE_TIMEOUT_SECONDS = 5;
+    public static final int WINDOW = 50; // frame credits a session starts with, and again after every seek
+
+    // radio -> node
+    public static final byte AUTH = 0;     // [long 0][byte[] signed nonce]
+    public static final byte PLAY = 1;     // [long session][long position][int volume][byte[] track]
+    public static final byte STOP = 2;     // [long session]
+    public static final byte SEEK = 3;     // [long session][long position][int generation]
+    public static final byte VOLUME = 4;   // [long session][int volume]
+    public static final byte CREDIT = 5;   // [long session][int frames]
+
+    // node -> radio
+    public static final byte HELLO = 9;    // [long 0][byte[] nonce]
+    public static final byte FRAME = 10;   // [long session][int generation][byte[] opus]
+    public static final byte END = 11;     // [long session][boolean failed]
+    public static final byte STATS = 12;   // [long 0][int players][double cpu load]
+
+    private NodeProtocol()
+    {
+        //Overrides the default, public, constructor
+    }
+
+    /**
+     * Reads the next message body, the first byte of the returned array is the opcode.
+     */
+    public static byte[] read(DataInputStream input) throws IOException
+    {
+        int length = input.readInt();
+
+        if (length <= 0 || length > MAX_MESSAGE_LENGTH)
+        {
+            throw new IOException("Invalid message length " + length);
+        }
+
+        byte[] message = new byte[length];
+        input.readFully(message);
+        return message;
+    }
+
+    /**
+     * Allocates a message with the opcode and session already written, STATS uses session 0.
+     */
+    public static ByteBuffer message(byte opcode, long session, int payloadLength)
+    {
+        ByteBuffer message = ByteBuffer.allocate(1 + Long.BYTES + payloadLength);
+        message.put(opcode);
+        message.putLong(session);
+        return message;
+    }
+
+    /**
+     * @return the HMAC-SHA256 of the nonce, keyed with the shared secret
+     */
+    public static byte[] sign(String secret, byte[] nonce)
+    {
+        try
+        {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(nonce);
+        }
+        catch (GeneralSecurityException exception)
+        {
+            throw new IllegalStateException("HmacSHA256 is unavailable", exception); // required on every JVM
+        }
+    }
+
+    public static void write(DataOutputStream output, ByteBuffer message) throws IOException
+    {
+        synchronized (output)
+        {
+            output.writeInt(message.capacity());
+            output.write(message.array());
+            output.flush();
+        }
+    }
+}
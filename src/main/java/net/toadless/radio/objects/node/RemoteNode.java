@@ -0,0 +1,273 @@
+package net.toadless.radio.objects.node;
+
+import net.toadless.radio.objects.exception.NodeUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The connection to a single audio node process.
+ */
+public class RemoteNode
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(RemoteNode.class);
+
+    private final NodeManager manager;
+    private final String address;
+    private final String host;
+    private final int port;
+    private final Map<Long, RemoteSession> sessions;
+
+    private Socket socket;
+    private volatile DataOutputStream output;
+    private volatile boolean available;
+    private volatile int players;
+    private volatile double cpuLoad;
+
+    public RemoteNode(NodeManager manager, String address)
+    {
+        int separator = address.lastIndexOf(':');
+
+        this.manager = manager;
+        this.address = address;
+        this.host = separator == -1 ? address : address.substring(0, separator);
+        this.port = separator == -1 ? NodeProtocol.DEFAULT_PORT : Integer.parseInt(address.substring(separator + 1));
+        this.sessions = new ConcurrentHashMap<>();
+    }
+
+    public synchronized void connect() throws IOException
+    {
+        if (available)
+        {
+            return;
+        }
+
+        Socket socket = new Socket();
+        DataInputStream input;
+        DataOutputStream output;
+
+        try
+        {
+            socket.connect(new InetSocketAddress(host, port), (int) TimeUnit.SECONDS.toMillis(5));
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(NodeProtocol.HANDSHAKE_TIMEOUT_SECONDS));
+
+            input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            authenticate(input, output);
+
+            socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(NodeProtocol.STATS_INTERVAL_SECONDS * 3L)); // stats double as a heartbeat
+        }
+        catch (IOException exception)
+        {
+            socket.close();
+            throw exception;
+        }
+
+        this.socket = socket;
+        this.output = output;
+        this.available = true;
+
+        Thread reader = new Thread(() -> read(socket, input), "audio-node-" + address);
+        reader.setDaemon(true);
+        reader.start();
+
+        LOGGER.info("Connected to audio node " + address);
+    }
+
+    /**
+     * Answers the node's nonce with the shared secret, a node with a different secret closes the connection.
+     */
+    private void authenticate(DataInputStream input, DataOutputStream output) throws IOException
+    {
+        ByteBuffer hello = ByteBuffer.wrap(NodeProtocol.read(input));
+
+        if (hello.remaining() < 1 + Long.BYTES || hello.get() != NodeProtocol.HELLO)
+        {
+            throw new IOException("Audio node " + address + " did not start with a handshake");
+        }
+
+        hello.getLong();
+        byte[] nonce = new byte[hello.remaining()];
+        hello.get(nonce);
+
+        byte[] signature = NodeProtocol.sign(manager.getSecret(), nonce);
+        ByteBuffer message = NodeProtocol.message(NodeProtocol.AUTH, 0, signature.length);
+        message.put(signature);
+        NodeProtocol.write(output, message);
+    }
+
+    private void read(Socket socket, DataInputStream input)
+    {
+        try (input)
+        {
+            while (true)
+            {
+                ByteBuffer message = ByteBuffer.wrap(NodeProtocol.read(input));
+                byte opcode = message.get();
+                long id = message.getLong();
+
+                switch (opcode)
+                {
+                    case NodeProtocol.FRAME ->
+                    {
+                        RemoteSession session = sessions.get(id);
+
+                        if (session != null)
+                        {
+                            int generation = message.getInt();
+                            byte[] frame = new byte[message.remaining()];
+                            message.get(frame);
+                            session.offer(generation, frame);
+                        }
+                    }
+                    case NodeProtocol.END ->
+                    {
+                        RemoteSession session = sessions.remove(id);
+
+                        if (session != null)
+                        {
+                            session.end(message.get() != 0);
+                        }
+                    }
+                    case NodeProtocol.STATS ->
+                    {
+                        players = message.getInt();
+                        cpuLoad = message.getDouble();
+                    }
+                    default -> LOGGER.warn("Audio node " + address + " sent unknown opcode " + opcode);
+                }
+            }
+        }
+        catch (IOException exception)
+        {
+            if (available)
+            {
+                LOGGER.warn("Lost the connection to audio node " + address, exception);
+            }
+        }
+        finally
+        {
+            disconnect(socket);
+        }
+    }
+
+    private synchronized void disconnect(Socket socket)
+    {
+        if (this.socket != socket)
+        {
+            return; // already reconnected
+        }
+
+        available = false;
+        output = null;
+
+        try
+        {
+            socket.close();
+        }
+        catch (IOException ignored)
+        {}
+
+        sessions.values().forEach(RemoteSession::lose);
+        sessions.clear();
+    }
+
+    public RemoteSession play(byte[] track, long position, int volume) throws IOException
+    {
+        RemoteSession session = new RemoteSession(this, manager.nextSessionId());
+        sessions.put(session.getId(), session);
+
+        ByteBuffer message = NodeProtocol.message(NodeProtocol.PLAY, session.getId(), Long.BYTES + Integer.BYTES + track.length);
+        message.putLong(position);
+        message.putInt(volume);
+        message.put(track);
+
+        try
+        {
+            send(message);
+            session.grant(NodeProtocol.WINDOW);
+        }
+        catch (IOException exception)
+        {
+            sessions.remove(session.getId());
+            throw exception;
+        }
+        return session;
+    }
+
+    void send(ByteBuffer message) throws IOException
+    {
+        DataOutputStream output = this.output;
+
+        if (!available || output == null)
+        {
+            throw new NodeUnavailableException("Audio node " + address + " is unavailable");
+        }
+
+        try
+        {
+            NodeProtocol.write(output, message);
+        }
+        catch (IOException exception)
+        {
+            disconnect(socket);
+            throw new NodeUnavailableException("Failed to write to audio node " + address);
+        }
+    }
+
+    void close(RemoteSession session)
+    {
+        if (sessions.remove(session.getId()) == null || !available)
+        {
+            return;
+        }
+
+        try
+        {
+            send(NodeProtocol.message(NodeProtocol.STOP, session.getId(), 0));
+        }
+        catch (IOException ignored)
+        {} // the node stops every session once the connection is gone
+    }
+
+    /**
+     * A lower penalty means a better place for a new player. Sessions are counted locally as well, so players placed
+     * since the last stats update are taken into account.
+     */
+    public double getPenalty()
+    {
+        return Math.max(players, sessions.size()) + cpuLoad * 100;
+    }
+
+    public boolean isAvailable()
+    {
+        return available;
+    }
+
+    public String getAddress()
+    {
+        return address;
+    }
+
+    public int getPlayers()
+    {
+        return players;
+    }
+
+    public double getCpuLoad()
+    {
+        return cpuLoad;
+    }
+}
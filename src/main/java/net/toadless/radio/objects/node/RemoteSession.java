@@ -0,0 +1,147 @@
+package net.toadless.radio.objects.node;
+
+import net.toadless.radio.objects.exception.NodeUnavailableException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One track playing on a {@link RemoteNode}. Frames are buffered here until the local player asks for them, and
+ * credit for another half window is handed back to the node whenever half a window has been consumed.
+ */
+public class RemoteSession implements AutoCloseable
+{
+    private final RemoteNode node;
+    private final long id;
+    private final BlockingQueue<byte[]> frames;
+
+    private volatile boolean ended;
+    private volatile boolean failed;
+    private volatile boolean lost;
+    private int generation; // guarded by frames
+    private int consumed;
+
+    public RemoteSession(RemoteNode node, long id)
+    {
+        this.node = node;
+        this.id = id;
+        this.frames = new LinkedBlockingQueue<>();
+    }
+
+    public long getId()
+    {
+        return id;
+    }
+
+    public RemoteNode getNode()
+    {
+        return node;
+    }
+
+    /**
+     * Blocks until the next frame arrives.
+     *
+     * @return the opus frame, or null once the track has ended on the node
+     * @throws NodeUnavailableException if the connection to the node was lost
+     */
+    public byte[] next() throws InterruptedException, IOException
+    {
+        while (true)
+        {
+            byte[] frame = frames.poll(100, TimeUnit.MILLISECONDS);
+
+            if (frame != null)
+            {
+                if (++consumed >= NodeProtocol.WINDOW / 2)
+                {
+                    grant(consumed);
+                    consumed = 0;
+                }
+                return frame;
+            }
+
+            if (lost)
+            {
+                throw new NodeUnavailableException("Lost the connection to audio node " + node.getAddress());
+            }
+
+            if (ended)
+            {
+                return null;
+            }
+        }
+    }
+
+    public boolean hasFailed()
+    {
+        return failed;
+    }
+
+    public void grant(int credits) throws IOException
+    {
+        ByteBuffer message = NodeProtocol.message(NodeProtocol.CREDIT, id, Integer.BYTES);
+        message.putInt(credits);
+        node.send(message);
+    }
+
+    /**
+     * Drops the buffered frames, the node starts over with a full window once it sees the seek.
+     */
+    public void seek(long position) throws IOException
+    {
+        int generation;
+
+        synchronized (frames)
+        {
+            generation = ++this.generation;
+            frames.clear();
+        }
+        consumed = 0;
+
+        ByteBuffer message = NodeProtocol.message(NodeProtocol.SEEK, id, Long.BYTES + Integer.BYTES);
+        message.putLong(position);
+        message.putInt(generation);
+        node.send(message);
+    }
+
+    public void setVolume(int volume) throws IOException
+    {
+        ByteBuffer message = NodeProtocol.message(NodeProtocol.VOLUME, id, Integer.BYTES);
+        message.putInt(volume);
+        node.send(message);
+    }
+
+    /**
+     * Frames from before the last seek that were still in flight are dropped.
+     */
+    void offer(int generation, byte[] frame)
+    {
+        synchronized (frames)
+        {
+            if (generation == this.generation)
+            {
+                frames.offer(frame);
+            }
+        }
+    }
+
+    void end(boolean failed)
+    {
+        this.failed = failed;
+        this.ended = true;
+    }
+
+    void lose()
+    {
+        this.lost = true;
+    }
+
+    @Override
+    public void close()
+    {
+        node.close(this);
+    }
+}
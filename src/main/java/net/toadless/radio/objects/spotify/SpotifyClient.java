@@ -0,0 +1,286 @@
+package net.toadless.radio.objects.spotify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.michaelthelin.spotify.SpotifyApi;
+import se.michaelthelin.spotify.exceptions.detailed.BadRequestException;
+import se.michaelthelin.spotify.exceptions.detailed.TooManyRequestsException;
+import se.michaelthelin.spotify.exceptions.detailed.UnauthorizedException;
+import se.michaelthelin.spotify.model_objects.credentials.ClientCredentials;
+import se.michaelthelin.spotify.model_objects.specification.Track;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sits in front of the Spotify web api and takes care of the access token, rate limits and batching.
+ * <p>
+ * Every request goes through one queue with a bounded number in flight. Spotify rate limits per application rather
+ * than per endpoint, so a 429 pauses the whole queue for as long as its Retry-After asks.
+ */
+public class SpotifyClient
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotifyClient.class);
+
+    private static final int MAX_IN_FLIGHT = 4;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int BATCH_SIZE = 50; // the most the several tracks endpoint accepts
+    private static final long BATCH_DELAY_MILLIS = 50;
+    private static final long REFRESH_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final SpotifyApi spotify;
+    private final Supplier<CompletableFuture<ClientCredentials>> credentials;
+    private final Deque<Request<?>> queue;
+    private final Map<String, List<CompletableFuture<Track>>> pendingTracks;
+
+    private int inFlight;
+    private long blockedUntil;
+    private boolean dispatchScheduled;
+
+    private long tokenExpiresAt;
+    private CompletableFuture<Void> refresh;
+
+    public SpotifyClient(SpotifyApi spotify)
+    {
+        this(spotify, () -> spotify.clientCredentials().build().executeAsync());
+    }
+
+    /**
+     * @param credentials fetches a new access token, the api's own token request always goes to Spotify
+     */
+    public SpotifyClient(SpotifyApi spotify, Supplier<CompletableFuture<ClientCredentials>> credentials)
+    {
+        this.spotify = spotify;
+        this.credentials = credentials;
+        this.queue = new ArrayDeque<>();
+        this.pendingTracks = new LinkedHashMap<>();
+    }
+
+    public SpotifyApi getApi()
+    {
+        return spotify;
+    }
+
+    /**
+     * Queues a request, the supplier is only called once a valid token is set and the queue isn't rate limited.
+     */
+    public <T> @NotNull CompletableFuture<T> execute(@NotNull Supplier<CompletableFuture<T>> call)
+    {
+        Request<T> request = new Request<>(call);
+
+        synchronized (this)
+        {
+            queue.offer(request);
+        }
+        dispatch();
+        return request.future;
+    }
+
+    /**
+     * Looks a track up together with any others requested within {@link #BATCH_DELAY_MILLIS}.
+     *
+     * @return the track, completed with null if Spotify doesn't know the id
+     */
+    public @NotNull CompletableFuture<Track> getTrack(@NotNull String id)
+    {
+        CompletableFuture<Track> future = new CompletableFuture<>();
+        boolean first;
+        boolean full;
+
+        synchronized (pendingTracks)
+        {
+            first = pendingTracks.isEmpty();
+            pendingTracks.computeIfAbsent(id, key -> new ArrayList<>()).add(future);
+            full = pendingTracks.size() >= BATCH_SIZE;
+        }
+
+        if (full)
+        {
+            flushTracks();
+        }
+        else if (first)
+        {
+            CompletableFuture.delayedExecutor(BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS).execute(this::flushTracks);
+        }
+        return future;
+    }
+
+    private void flushTracks()
+    {
+        Map<String, List<CompletableFuture<Track>>> batch;
+
+        synchronized (pendingTracks)
+        {
+            if (pendingTracks.isEmpty()) return;
+
+            batch = new LinkedHashMap<>(pendingTracks);
+            pendingTracks.clear();
+        }
+
+        String[] ids = batch.keySet().toArray(String[]::new);
+
+        execute(() -> spotify.getSeveralTracks(ids).build().executeAsync()).whenComplete((tracks, throwable) ->
+        {
+            if (throwable instanceof BadRequestException && ids.length > 1)
+            {
+                // a single malformed id fails the whole batch, so everyone gets their own answer instead
+                batch.forEach((id, futures) -> execute(() -> spotify.getTrack(id).build().executeAsync())
+                        .whenComplete((track, error) -> futures.forEach(future -> complete(future, track, error))));
+                return;
+            }
+
+            int index = 0;
+
+            for (List<CompletableFuture<Track>> futures : batch.values())
+            {
+                Track track = tracks == null ? null : tracks[index++]; // results come back in request order
+                futures.forEach(future -> complete(future, track, throwable));
+            }
+        });
+    }
+
+    private void complete(CompletableFuture<Track> future, @Nullable Track track, @Nullable Throwable throwable)
+    {
+        if (throwable != null)
+        {
+            future.completeExceptionally(throwable);
+        }
+        else
+        {
+            future.complete(track);
+        }
+    }
+
+    private void dispatch()
+    {
+        List<Request<?>> toStart = new ArrayList<>();
+
+        synchronized (this)
+        {
+            long wait = blockedUntil - System.currentTimeMillis();
+
+            if (wait > 0)
+            {
+                if (!dispatchScheduled)
+                {
+                    dispatchScheduled = true;
+                    CompletableFuture.delayedExecutor(wait, TimeUnit.MILLISECONDS).execute(() ->
+                    {
+                        synchronized (this)
+                        {
+                            dispatchScheduled = false;
+                        }
+                        dispatch();
+                    });
+                }
+                return;
+            }
+
+            while (inFlight < MAX_IN_FLIGHT && !queue.isEmpty())
+            {
+                inFlight++;
+                toStart.add(queue.poll());
+            }
+        }
+
+        toStart.forEach(this::start);
+    }
+
+    private <T> void start(Request<T> request)
+    {
+        request.attempts++;
+
+        token().thenCompose(ignored -> request.call.get()).whenComplete((result, throwable) ->
+        {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+
+            synchronized (this)
+            {
+                inFlight--;
+
+                if (cause instanceof TooManyRequestsException && request.attempts < MAX_ATTEMPTS)
+                {
+                    long retryAfter = TimeUnit.SECONDS.toMillis(Math.max(1, ((TooManyRequestsException) cause).getRetryAfter()));
+                    LOGGER.warn("Rate limited by Spotify, pausing requests for " + retryAfter + "ms.");
+
+                    blockedUntil = Math.max(blockedUntil, System.currentTimeMillis() + retryAfter);
+                    queue.offerFirst(request);
+                    cause = null;
+                }
+                else if (cause instanceof UnauthorizedException && request.attempts < MAX_ATTEMPTS)
+                {
+                    tokenExpiresAt = 0; // revoked early, fetch a new one
+                    queue.offerFirst(request);
+                    cause = null;
+                }
+                else if (cause == null)
+                {
+                    request.future.complete(result);
+                }
+            }
+
+            if (cause != null)
+            {
+                request.future.completeExceptionally(cause);
+            }
+            dispatch();
+        });
+    }
+
+    /**
+     * Refreshes the token shortly before it expires, concurrent callers share the same refresh.
+     */
+    private synchronized CompletableFuture<Void> token()
+    {
+        if (System.currentTimeMillis() < tokenExpiresAt - REFRESH_MARGIN_MILLIS)
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (refresh == null || refresh.isDone())
+        {
+            LOGGER.info("Attempting to update the access token.");
+
+            refresh = this.credentials.get().thenAccept(credentials ->
+            {
+                spotify.setAccessToken(credentials.getAccessToken());
+
+                synchronized (this)
+                {
+                    tokenExpiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(credentials.getExpiresIn());
+                }
+                LOGGER.info("Updating the access token succeeded.");
+            });
+
+            refresh.exceptionally(throwable ->
+            {
+                LOGGER.error("Updating the access token failed.", throwable);
+                return null;
+            });
+        }
+        return refresh;
+    }
+
+    private static final class Request<T>
+    {
+        private final Supplier<CompletableFuture<T>> call;
+        private final CompletableFuture<T> future;
+        private int attempts;
+
+        private Request(Supplier<CompletableFuture<T>> call)
+        {
+            this.call = call;
+            this.future = new CompletableFuture<>();
+        }
+    }
+}
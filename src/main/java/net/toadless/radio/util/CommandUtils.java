@@ -1,10 +1,12 @@
 package net.toadless.radio.util;
 
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.UserSnowflake;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.toadless.radio.Radio;
 import net.toadless.radio.objects.cache.GuildSettingsCache;
@@ -19,7 +21,7 @@ public class CommandUtils
 
     public static boolean isValidCommand(String message, long guildId, Radio radio)
     {
-        return message.startsWith(GuildSettingsCache.getCache(guildId, radio).getPrefix()) || message.startsWith("<@" + radio.getSelfUser().getId() + ">") || message.startsWith("<@!" + radio.getSelfUser().getId() + ">");
+        return message.startsWith(GuildSettingsCache.getCachedSettings(guildId, radio).getPrefix()) || message.startsWith("<@" + radio.getSelfUser().getId() + ">") || message.startsWith("<@!" + radio.getSelfUser().getId() + ">");
     }
 
     public static String formatTime(int time)
@@ -40,6 +42,15 @@ public class CommandUtils
         return String.format("%s:%s", formatTime((int) duration.toMinutes()), formatTime(duration.toSecondsPart()));
     }
 
+    /**
+     * Restored, spilled and Spotify tracks may not have a requester.
+     */
+    public static String formatRequester(AudioTrack track)
+    {
+        UserSnowflake requester = track.getUserData(UserSnowflake.class);
+        return requester == null ? "Unknown" : requester.getAsMention();
+    }
+
     public static void interactionCheck(User user1, User user2, CommandEvent ctx, Runnable onSuccess)
     {
         List<RestAction<?>> actions = new ArrayList<>();
@@ -118,8 +118,8 @@ public class Parser
     {
         try
         {
-            OptionalInt value = OptionalInt.of(Integer.parseUnsignedInt(arg));
-            if (value.getAsInt() == 0)
+            OptionalInt value = OptionalInt.of(Integer.parseInt(arg));
+            if (value.getAsInt() <= 0)
             {
                 event.replyError("Enter a whole number greater than 0, eg: 1");
                 return OptionalInt.empty();
@@ -137,7 +137,7 @@ public class Parser
     {
         try
         {
-            OptionalInt value = OptionalInt.of(Integer.parseUnsignedInt(arg));
+            OptionalInt value = OptionalInt.of(Integer.parseInt(arg));
             if (value.getAsInt() <= -1)
             {
                 event.replyError("Enter a whole number greater than -1, eg: 0");
@@ -5,12 +5,24 @@ import io.javalin.http.Handler;
 import net.dv8tion.jda.api.JDAInfo;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.toadless.radio.modules.CommandModule;
+import net.toadless.radio.modules.DatabaseModule;
 import net.toadless.radio.modules.MusicModule;
 import net.toadless.radio.modules.WebModule;
+import net.toadless.radio.objects.cache.GuildSettingsCache;
+import net.toadless.radio.objects.cache.GuildSettingsWriter;
+import net.toadless.radio.objects.cache.SpotifyTrackCache;
+import net.toadless.radio.objects.database.DatabaseExecutor;
+import net.toadless.radio.objects.music.LoadPriority;
+import net.toadless.radio.objects.music.LoadScheduler;
+import net.toadless.radio.objects.music.ResolutionCache;
+import net.toadless.radio.objects.music.TransitionMetrics;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.stream.Collectors;
+
 public class InfoRoute implements Handler
 {
     private final WebModule webModule;
@@ -24,10 +36,61 @@ public class InfoRoute implements Handler
     public void handle(@NotNull Context ctx)
     {
         ShardManager shardManager = webModule.getRadio().getShardManager();
+        MusicModule musicModule = webModule.getRadio().getModules().get(MusicModule.class);
+        TransitionMetrics transitionMetrics = musicModule.getTransitionMetrics();
+        LoadScheduler loadScheduler = musicModule.getLoadScheduler();
+        ResolutionCache resolutionCache = musicModule.getResolutionCache();
+        SpotifyTrackCache spotifyCache = musicModule.getSpotifySourceManager().getCache();
+        DatabaseModule databaseModule = webModule.getRadio().getModules().get(DatabaseModule.class);
+        GuildSettingsWriter settingsWriter = databaseModule.getSettingsWriter();
+        DatabaseExecutor databaseExecutor = databaseModule.getExecutor();
         webModule.ok(ctx, DataObject.empty()
                 .put("shards", shardManager.getShardCache().size())
                 .put("guilds", shardManager.getGuildCache().size())
                 .put("players", webModule.getRadio().getModules().get(MusicModule.class).getPlayers())
+                .put("passthrough_players", webModule.getRadio().getModules().get(MusicModule.class).getPassthroughPlayers())
+                .put("broadcasts", webModule.getRadio().getModules().get(MusicModule.class).getBroadcasts())
+                .put("broadcast_subscribers", webModule.getRadio().getModules().get(MusicModule.class).getBroadcastSubscribers())
+                .put("nodes", DataArray.fromCollection(musicModule.getNodes().stream()
+                        .map(node -> DataObject.empty()
+                                .put("address", node.getAddress())
+                                .put("available", node.isAvailable())
+                                .put("players", node.getPlayers())
+                                .put("cpu_load", node.getCpuLoad()))
+                        .collect(Collectors.toList())))
+                .put("load_queue", DataObject.empty()
+                        .put("interactive", loadScheduler.getQueueDepth(LoadPriority.INTERACTIVE))
+                        .put("resolve", loadScheduler.getQueueDepth(LoadPriority.RESOLVE))
+                        .put("bulk", loadScheduler.getQueueDepth(LoadPriority.BULK))
+                        .put("running", loadScheduler.getRunning())
+                        .put("completed", loadScheduler.getCompleted())
+                        .put("average_wait_ms", loadScheduler.getAverageWaitMillis()))
+                .put("resolution_cache", DataObject.empty()
+                        .put("size", resolutionCache.getSize())
+                        .put("hits", resolutionCache.getHits())
+                        .put("misses", resolutionCache.getMisses())
+                        .put("coalesced", resolutionCache.getCoalesced()))
+                .put("spotify_cache", DataObject.empty()
+                        .put("size", spotifyCache.getSize())
+                        .put("memory_hits", spotifyCache.getMemoryHits())
+                        .put("database_hits", spotifyCache.getDatabaseHits())
+                        .put("misses", spotifyCache.getMisses()))
+                .put("guild_settings", GuildSettingsCache.getSize())
+                .put("database", DataObject.empty()
+                        .put("queue_depth", databaseExecutor.getQueueDepth())
+                        .put("active", databaseExecutor.getActive())
+                        .put("completed", databaseExecutor.getCompleted())
+                        .put("rejected", databaseExecutor.getRejected())
+                        .put("average_wait_ms", databaseExecutor.getAverageWaitMillis())
+                        .put("average_execution_ms", databaseExecutor.getAverageExecutionMillis()))
+                .put("settings_writes", DataObject.empty()
+                        .put("pending", settingsWriter.getPending())
+                        .put("written", settingsWriter.getWritten())
+                        .put("failed", settingsWriter.getFailed()))
+                .put("track_transitions", transitionMetrics.getTransitions())
+                .put("prefetched_transitions", transitionMetrics.getPrefetchedTransitions())
+                .put("average_gap_ms", transitionMetrics.getAverageGapMillis())
+                .put("max_gap_ms", transitionMetrics.getMaxGapMillis())
                 .put("users", shardManager.getGuildCache().applyStream(guildStream -> guildStream.mapToInt(Guild::getMemberCount).sum()))
                 .put("jda_version", JDAInfo.VERSION)
                 .put("commands", webModule.getRadio().getModules().get(CommandModule.class).getCommandMap().values().stream().distinct().count())
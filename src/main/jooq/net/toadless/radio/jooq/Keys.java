@@ -5,7 +5,11 @@ package net.toadless.radio.jooq;
 
 
 import net.toadless.radio.jooq.tables.Guilds;
+import net.toadless.radio.jooq.tables.Players;
+import net.toadless.radio.jooq.tables.SpotifyTracks;
 import net.toadless.radio.jooq.tables.records.GuildsRecord;
+import net.toadless.radio.jooq.tables.records.PlayersRecord;
+import net.toadless.radio.jooq.tables.records.SpotifyTracksRecord;
 
 import org.jooq.TableField;
 import org.jooq.UniqueKey;
@@ -25,4 +29,6 @@ public class Keys {
     // -------------------------------------------------------------------------
 
     public static final UniqueKey<GuildsRecord> GUILDS_PKEY = Internal.createUniqueKey(Guilds.GUILDS, DSL.name("guilds_pkey"), new TableField[] { Guilds.GUILDS.GUILD_ID }, true);
+    public static final UniqueKey<PlayersRecord> PLAYERS_PKEY = Internal.createUniqueKey(Players.PLAYERS, DSL.name("players_pkey"), new TableField[] { Players.PLAYERS.GUILD_ID }, true);
+    public static final UniqueKey<SpotifyTracksRecord> SPOTIFY_TRACKS_PKEY = Internal.createUniqueKey(SpotifyTracks.SPOTIFY_TRACKS, DSL.name("spotify_tracks_pkey"), new TableField[] { SpotifyTracks.SPOTIFY_TRACKS.SPOTIFY_ID }, true);
 }
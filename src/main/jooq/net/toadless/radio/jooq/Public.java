@@ -8,6 +8,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import net.toadless.radio.jooq.tables.Guilds;
+import net.toadless.radio.jooq.tables.Players;
+import net.toadless.radio.jooq.tables.SpotifyTracks;
 
 import org.jooq.Catalog;
 import org.jooq.Table;
@@ -32,6 +34,16 @@ public class Public extends SchemaImpl {
      */
     public final Guilds GUILDS = Guilds.GUILDS;
 
+    /**
+     * The table <code>public.players</code>.
+     */
+    public final Players PLAYERS = Players.PLAYERS;
+
+    /**
+     * The table <code>public.spotify_tracks</code>.
+     */
+    public final SpotifyTracks SPOTIFY_TRACKS = SpotifyTracks.SPOTIFY_TRACKS;
+
     /**
      * No further instances allowed
      */
@@ -48,7 +60,9 @@ public class Public extends SchemaImpl {
     @Override
     public final List<Table<?>> getTables() {
         return Arrays.asList(
-            Guilds.GUILDS
+            Guilds.GUILDS,
+            Players.PLAYERS,
+            SpotifyTracks.SPOTIFY_TRACKS
         );
     }
 }
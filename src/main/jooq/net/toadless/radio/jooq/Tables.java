@@ -5,6 +5,8 @@ package net.toadless.radio.jooq;
 
 
 import net.toadless.radio.jooq.tables.Guilds;
+import net.toadless.radio.jooq.tables.Players;
+import net.toadless.radio.jooq.tables.SpotifyTracks;
 
 
 /**
@@ -17,4 +19,14 @@ public class Tables {
      * The table <code>public.guilds</code>.
      */
     public static final Guilds GUILDS = Guilds.GUILDS;
+
+    /**
+     * The table <code>public.players</code>.
+     */
+    public static final Players PLAYERS = Players.PLAYERS;
+
+    /**
+     * The table <code>public.spotify_tracks</code>.
+     */
+    public static final SpotifyTracks SPOTIFY_TRACKS = SpotifyTracks.SPOTIFY_TRACKS;
 }
@@ -0,0 +1,19 @@
+CREATE TABLE IF NOT EXISTS players
+(
+    guild_id BIGINT NOT NULL PRIMARY KEY,
+    voice_channel_id BIGINT NOT NULL,
+    text_channel_id BIGINT NOT NULL DEFAULT -1,
+    repeat_mode VARCHAR(5) NOT NULL DEFAULT 'OFF',
+    volume INTEGER NOT NULL DEFAULT 100,
+    bass_boost REAL NOT NULL DEFAULT 0,
+    paused BOOLEAN NOT NULL DEFAULT false,
+    position BIGINT NOT NULL DEFAULT 0,
+    current BYTEA,
+    queue BYTEA NOT NULL,
+    history BYTEA NOT NULL,
+    queue_offset INTEGER NOT NULL DEFAULT 0,
+    history_head BYTEA
+);
+
+ALTER TABLE players ADD COLUMN IF NOT EXISTS queue_offset INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE players ADD COLUMN IF NOT EXISTS history_head BYTEA;
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS spotify_tracks
+(
+    spotify_id VARCHAR(32) NOT NULL PRIMARY KEY,
+    track BYTEA NOT NULL,
+    resolved_at BIGINT NOT NULL
+);
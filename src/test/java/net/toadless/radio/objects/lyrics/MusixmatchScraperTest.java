@@ -0,0 +1,108 @@
+package net.toadless.radio.objects.lyrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Serves the pages in {@code src/test/resources/lyrics} in place of Musixmatch.
+ */
+class MusixmatchScraperTest
+{
+    private HttpServer server;
+    private ExecutorService executor;
+    private String baseUrl;
+
+    @BeforeEach
+    void start() throws IOException
+    {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/search/", exchange -> serve(exchange, exchange.getRequestURI().getPath().contains("unknown") ? "search-empty.html" : "search.html"));
+        server.createContext("/lyrics/Rick-Astley/Never-Gonna-Give-You-Up", exchange -> serve(exchange, "lyrics.html"));
+        server.createContext("/slow/search/", exchange ->
+        {
+            try
+            {
+                Thread.sleep(2000);
+            }
+            catch (InterruptedException ignored)
+            {}
+            serve(exchange, "search.html");
+        });
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor); // so the slow page doesn't hold up the others
+        server.start();
+
+        baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stop()
+    {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void followsTheFirstResult() throws IOException
+    {
+        Lyrics lyrics = new MusixmatchScraper(baseUrl, 5000).fetch("never gonna give you up");
+
+        assertNotNull(lyrics);
+        assertEquals("Never Gonna Give You Up", lyrics.getTitle());
+        assertEquals("Rick Astley", lyrics.getArtist());
+        assertEquals(baseUrl + "/lyrics/Rick-Astley/Never-Gonna-Give-You-Up", lyrics.getUrl());
+        assertTrue(lyrics.getText().contains("Never gonna let you down"));
+        assertFalse(lyrics.getText().contains("script"), "Markup should be stripped from the lyrics");
+    }
+
+    @Test
+    void returnsNullWithoutResults() throws IOException
+    {
+        assertNull(new MusixmatchScraper(baseUrl, 5000).fetch("unknown song"));
+    }
+
+    @Test
+    void timesOut()
+    {
+        MusixmatchScraper scraper = new MusixmatchScraper(baseUrl + "/slow", 200);
+
+        assertThrows(SocketTimeoutException.class, () -> scraper.fetch("never gonna give you up"));
+    }
+
+    private static void serve(HttpExchange exchange, String page) throws IOException
+    {
+        byte[] body;
+
+        try (InputStream input = MusixmatchScraperTest.class.getResourceAsStream("/lyrics/" + page))
+        {
+            body = input.readAllBytes();
+        }
+
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+
+        try (OutputStream output = exchange.getResponseBody())
+        {
+            output.write(body);
+        }
+    }
+}
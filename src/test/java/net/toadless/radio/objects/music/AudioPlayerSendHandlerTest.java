@@ -0,0 +1,120 @@
+package net.toadless.radio.objects.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.DelegatedAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioProcessingContext;
+import com.sedmelluq.discord.lavaplayer.track.playback.ImmutableAudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+import com.sedmelluq.discord.lavaplayer.track.playback.NonAllocatingAudioFrameBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AudioPlayerSendHandlerTest
+{
+    private static final byte[] SILENCE = {(byte) 0xF8, (byte) 0xFF, (byte) 0xFE};
+    private static final int WARMUP_FRAMES = 20_000;
+    private static final int MEASURED_FRAMES = 5_000;
+
+    @Test
+    void sendPathDoesNotAllocate()
+    {
+        AudioPlayerManager manager = new DefaultAudioPlayerManager();
+        manager.getConfiguration().setFrameBufferFactory(NonAllocatingAudioFrameBuffer::new);
+
+        AudioPlayer player = manager.createPlayer();
+        AudioPlayer standby = manager.createPlayer();
+        player.playTrack(new SilenceTrack()); // before the scheduler listens, it would announce the track otherwise
+
+        TrackScheduler scheduler = new TrackScheduler(player, standby, null, new TrackCodec(manager), 0, new TransitionMetrics(), null, null, null);
+        AudioPlayerSendHandler handler = new AudioPlayerSendHandler(scheduler);
+
+        try
+        {
+            assertEquals(WARMUP_FRAMES, send(handler, WARMUP_FRAMES)); // so the measured frames run compiled code
+
+            long before = allocatedBytes();
+            int sent = send(handler, MEASURED_FRAMES);
+            long allocated = allocatedBytes() - before;
+
+            assertEquals(MEASURED_FRAMES, sent);
+            assertEquals(0, allocated, "Sending " + sent + " frames allocated " + allocated + " bytes");
+        }
+        finally
+        {
+            player.removeListener(scheduler);
+            player.destroy();
+            standby.destroy();
+            manager.shutdown();
+        }
+    }
+
+    /**
+     * Polls the handler like JDA's send thread does, without waiting 20ms between frames.
+     */
+    private static int send(AudioPlayerSendHandler handler, int frames)
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        int sent = 0;
+
+        while (sent < frames && System.nanoTime() < deadline)
+        {
+            if (handler.canProvide())
+            {
+                handler.provide20MsAudio();
+                sent++;
+            }
+            else
+            {
+                Thread.onSpinWait();
+            }
+        }
+        return sent;
+    }
+
+    private static long allocatedBytes()
+    {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Produces Opus silence for as long as it is asked to, the frames are allocated on the player's own thread.
+     */
+    private static class SilenceTrack extends DelegatedAudioTrack
+    {
+        private SilenceTrack()
+        {
+            super(new AudioTrackInfo("Silence", "Radio", Long.MAX_VALUE, "silence", true, "silence"));
+        }
+
+        @Override
+        public void process(LocalAudioTrackExecutor executor) throws Exception
+        {
+            AudioProcessingContext context = executor.getProcessingContext();
+
+            executor.executeProcessingLoop(() ->
+            {
+                long timecode = 0;
+
+                while (true)
+                {
+                    context.frameBuffer.consume(new ImmutableAudioFrame(timecode, SILENCE, GuildMusicManager.DEFAULT_VOLUME, context.outputFormat));
+                    timecode += 20;
+                }
+            }, null);
+        }
+
+        @Override
+        protected AudioTrack makeShallowClone()
+        {
+            return new SilenceTrack();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package net.toadless.radio.objects.spotify;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.michaelthelin.spotify.SpotifyApi;
+import se.michaelthelin.spotify.model_objects.credentials.ClientCredentials;
+import se.michaelthelin.spotify.model_objects.specification.Track;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the client against a local stub of the tracks endpoints, access tokens are handed out by the test itself.
+ */
+class SpotifyClientTest
+{
+    private HttpServer server;
+    private SpotifyApi api;
+    private List<String> requests; // the path and query of every request the stub received
+    private AtomicInteger rateLimited; // how many of the next requests are answered with a 429
+
+    @BeforeEach
+    void start() throws IOException
+    {
+        requests = new CopyOnWriteArrayList<>();
+        rateLimited = new AtomicInteger();
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v1/tracks", this::tracks);
+        server.start();
+
+        api = SpotifyApi.builder()
+                .setScheme("http")
+                .setHost(server.getAddress().getHostString())
+                .setPort(server.getAddress().getPort())
+                .build();
+    }
+
+    @AfterEach
+    void stop()
+    {
+        server.stop(0);
+    }
+
+    @Test
+    void batchesLookupsIntoOneRequest() throws Exception
+    {
+        SpotifyClient client = new SpotifyClient(api, credentials(3600, new AtomicInteger()));
+
+        CompletableFuture<Track> first = client.getTrack("a");
+        CompletableFuture<Track> second = client.getTrack("b");
+        CompletableFuture<Track> again = client.getTrack("a");
+
+        assertEquals("Track a", first.get(5, TimeUnit.SECONDS).getName());
+        assertEquals("Track b", second.get(5, TimeUnit.SECONDS).getName());
+        assertEquals("Track a", again.get(5, TimeUnit.SECONDS).getName());
+        assertEquals(List.of("/v1/tracks?ids=a,b"), requests);
+    }
+
+    @Test
+    void waitsForRetryAfter() throws Exception
+    {
+        SpotifyClient client = new SpotifyClient(api, credentials(3600, new AtomicInteger()));
+        rateLimited.set(1);
+
+        long start = System.nanoTime();
+        Track track = client.execute(() -> api.getTrack("a").build().executeAsync()).get(10, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("Track a", track.getName());
+        assertEquals(2, requests.size());
+        assertTrue(elapsed >= 1000, "Retried after " + elapsed + "ms, Retry-After asked for 1s");
+    }
+
+    @Test
+    void sharesOneTokenRefresh() throws Exception
+    {
+        AtomicInteger refreshes = new AtomicInteger();
+        CompletableFuture<ClientCredentials> token = new CompletableFuture<>();
+        SpotifyClient client = new SpotifyClient(api, () ->
+        {
+            refreshes.incrementAndGet();
+            return token;
+        });
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++)
+        {
+            int result = i;
+            results.add(client.execute(() -> CompletableFuture.completedFuture(result)));
+        }
+
+        token.complete(credentials(3600));
+
+        for (int i = 0; i < results.size(); i++)
+        {
+            assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    void refreshesBeforeTheTokenExpires() throws Exception
+    {
+        AtomicInteger expiring = new AtomicInteger();
+        AtomicInteger valid = new AtomicInteger();
+        SpotifyClient expiringClient = new SpotifyClient(api, credentials(30, expiring)); // within the refresh margin
+        SpotifyClient validClient = new SpotifyClient(api, credentials(3600, valid));
+
+        for (int i = 0; i < 2; i++)
+        {
+            expiringClient.execute(() -> CompletableFuture.completedFuture(null)).get(5, TimeUnit.SECONDS);
+            validClient.execute(() -> CompletableFuture.completedFuture(null)).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(2, expiring.get());
+        assertEquals(1, valid.get());
+    }
+
+    private void tracks(HttpExchange exchange) throws IOException
+    {
+        URI uri = exchange.getRequestURI();
+        requests.add(uri.getPath() + (uri.getQuery() == null ? "" : "?" + uri.getQuery()));
+
+        if (rateLimited.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0)
+        {
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            respond(exchange, 429, "{\"error\":{\"status\":429,\"message\":\"API rate limit exceeded\"}}");
+            return;
+        }
+
+        if (uri.getPath().equals("/v1/tracks"))
+        {
+            String ids = Arrays.stream(uri.getQuery().split("&"))
+                    .filter(parameter -> parameter.startsWith("ids="))
+                    .map(parameter -> parameter.substring("ids=".length()))
+                    .findFirst()
+                    .orElse("");
+
+            respond(exchange, 200, "{\"tracks\":[" + Arrays.stream(ids.split(",")).map(SpotifyClientTest::track).collect(Collectors.joining(",")) + "]}");
+        }
+        else
+        {
+            respond(exchange, 200, track(uri.getPath().substring("/v1/tracks/".length())));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException
+    {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        try (OutputStream output = exchange.getResponseBody())
+        {
+            output.write(bytes);
+        }
+    }
+
+    private static String track(String id)
+    {
+        return "{\"id\":\"" + id + "\",\"name\":\"Track " + id + "\",\"type\":\"track\"}";
+    }
+
+    private static Supplier<CompletableFuture<ClientCredentials>> credentials(int expiresIn, AtomicInteger refreshes)
+    {
+        return () ->
+        {
+            refreshes.incrementAndGet();
+            return CompletableFuture.completedFuture(credentials(expiresIn));
+        };
+    }
+
+    private static ClientCredentials credentials(int expiresIn)
+    {
+        return new ClientCredentials.Builder()
+                .setAccessToken("token")
+                .setTokenType("Bearer")
+                .setExpiresIn(expiresIn)
+                .build();
+    }
+}